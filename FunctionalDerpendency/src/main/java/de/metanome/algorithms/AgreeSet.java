@@ -1,73 +1,111 @@
 package de.metanome.algorithms;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
-import org.apache.lucene.util.OpenBitSet;
-
+/**
+ * Columns on which two rows have equal values, stored as a bitset of long
+ * words like {@link DifferenceSet}.
+ */
 public class AgreeSet {
   
-  List<Integer> ColumnIds = new ArrayList<Integer>();
-  
-  public AgreeSet(List<EquivalenceClass> ecs) {
-    for (EquivalenceClass ec : ecs) {
-      for (Tuple<Integer, Integer> item : ec.Items) {
-        this.ColumnIds.add(item.GetLeft());
-      }
-    }
+  private final long[] bits;
+
+  private AgreeSet(int numberOfColumns) {
+    this.bits = new long[(numberOfColumns + 63) >>> 6];
   }
-  
+
+  public boolean contains(int column) {
+    return (this.bits[column >>> 6] & (1L << column)) != 0;
+  }
+
+  /**
+   * Computes the agree sets of all pairs of rows that share a value in some
+   * column. Such rows are in a common maximal set, so only the pairs of each
+   * maximal set are compared, column by column on the rows' cluster ids. If
+   * some rows share no value at all, the empty agree set is included as
+   * well.
+   */
   public static Set<AgreeSet> calculateAgreeSets(StrippedPartitions partitions) {
-    List<ComparableOpenBitSet> max = StrippedPartitions.CreateMaxSets(partitions);
-    Map<Integer, EquivalenceClass> equivalenceClasses = new LinkedHashMap<Integer, EquivalenceClass>();
-    for (Entry<Integer, LinkedList<ComparableOpenBitSet>> partition : partitions.entrySet()) {
-      int partsIndex = 0;
-      // partition might need to be sorted in ascending order,
-      // based on the appearance of the first set bit in the OpenBitSet
-      for (OpenBitSet parts : partition.getValue()) {
-        Integer currentBit = 0;
-        Integer lastBit = 0;
+    List<int[]> maxSets = StrippedPartitions.CreateMaxSets(partitions);
+    int numberOfColumns = partitions.getNumberOfColumns();
+    int[][] clusterIds = partitions.getClusterIdsByRow();
 
-        while ((currentBit = parts.nextSetBit(lastBit)) != -1) {
-          lastBit = currentBit;
-          if (currentBit == -1) {
-            break;
+    Set<AgreeSet> agreeSets = new LinkedHashSet<AgreeSet>();
+    // a new set is only allocated if the previous one was added
+    AgreeSet agreeSet = new AgreeSet(numberOfColumns);
+    for (int[] maxSet : maxSets) {
+      for (int i = 0; i < maxSet.length; i++) {
+        int[] row = clusterIds[maxSet[i]];
+        for (int j = i + 1; j < maxSet.length; j++) {
+          int[] otherRow = clusterIds[maxSet[j]];
+          for (int column = 0; column < numberOfColumns; column++) {
+            if (row[column] == otherRow[column]) {
+              agreeSet.bits[column >>> 6] |= 1L << column;
+            }
+          }
+          if (agreeSets.add(agreeSet)) {
+            agreeSet = new AgreeSet(numberOfColumns);
+          } else {
+            Arrays.fill(agreeSet.bits, 0L);
           }
-          EquivalenceClass ec = equivalenceClasses.get(currentBit);
-          if (ec == null) {
-            ec = new EquivalenceClass(partition.getKey(), partsIndex);
-            equivalenceClasses.put(currentBit, ec);
-          } else 
-            ec.Items.add(new Tuple<Integer, Integer>(partition.getKey(), partsIndex));
-          lastBit++;
         }
-        partsIndex++;
       }
     }
-    Set<AgreeSet> agreeSets = new LinkedHashSet<AgreeSet>();
-    List<EquivalenceClass> intersections = new ArrayList<EquivalenceClass>();
-    for (OpenBitSet bits : max) {
-      Integer currentBit = 0;
-      Integer lastBit = 0;
-      List<EquivalenceClass> toIntersect = new ArrayList<EquivalenceClass>();
-      while ((currentBit = bits.nextSetBit(lastBit)) != -1) {
-        toIntersect.add(equivalenceClasses.get(currentBit));
-        lastBit = currentBit;
-        lastBit++;
-      }
-      if (intersections.isEmpty())
-        intersections.addAll(toIntersect);
-      intersections.retainAll(toIntersect);
-      if (!intersections.isEmpty())
-        agreeSets.add(new AgreeSet(intersections));
+    if (hasUnrelatedRows(maxSets, partitions.getNumberOfRows())) {
+      agreeSets.add(new AgreeSet(numberOfColumns));
     }
     return agreeSets;
   }
+
+  /**
+   * @return true if there are two rows that are not in a common maximal set,
+   * i.e. that share no value
+   */
+  private static boolean hasUnrelatedRows(List<int[]> maxSets, int numberOfRows) {
+    List<List<int[]>> maxSetsByRow = new ArrayList<List<int[]>>(numberOfRows);
+    for (int row = 0; row < numberOfRows; row++) {
+      maxSetsByRow.add(new ArrayList<int[]>(2));
+    }
+    for (int[] maxSet : maxSets) {
+      for (int row : maxSet) {
+        maxSetsByRow.get(row).add(maxSet);
+      }
+    }
+    // counts the rows related to each row, marking them with the row number
+    int[] marks = new int[numberOfRows];
+    Arrays.fill(marks, -1);
+    for (int row = 0; row < numberOfRows; row++) {
+      marks[row] = row;
+      int related = 1;
+      for (int[] maxSet : maxSetsByRow.get(row)) {
+        for (int other : maxSet) {
+          if (marks[other] != row) {
+            marks[other] = row;
+            related++;
+          }
+        }
+      }
+      if (related < numberOfRows) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(this.bits);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof AgreeSet)) return false;
+    return Arrays.equals(this.bits, ((AgreeSet) o).bits);
+  }
   
 }
@@ -0,0 +1,35 @@
+package de.metanome.algorithms;
+
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.result_receiver.FunctionalDependencyResultReceiver;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+
+/**
+ * Forwards functional dependencies to another receiver on a separate writer thread, see
+ * {@link AsyncReceiver}.
+ */
+public class AsyncFunctionalDependencyReceiver extends AsyncReceiver<FunctionalDependency>
+    implements FunctionalDependencyResultReceiver {
+
+  private final FunctionalDependencyResultReceiver receiver;
+
+  /**
+   * Starts the writer thread.
+   * @param receiver the receiver to forward the results to
+   */
+  public AsyncFunctionalDependencyReceiver(FunctionalDependencyResultReceiver receiver) {
+    super("FunctionalDerpendency result writer");
+    this.receiver = receiver;
+  }
+
+  @Override
+  public void receiveResult(FunctionalDependency result) throws CouldNotReceiveResultException {
+    this.receive(result);
+  }
+
+  @Override
+  protected void forward(FunctionalDependency result) throws CouldNotReceiveResultException {
+    this.receiver.receiveResult(result);
+  }
+
+}
@@ -1,7 +1,7 @@
 package de.metanome.algorithms;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import de.metanome.algorithm_integration.ColumnCombination;
@@ -24,9 +24,8 @@ public class ComparableFunctionalDependency implements Comparable<ComparableFunc
     final int prime = 31;
     int result = 7;
     result = prime * result + dependant;
-//    result = prime * result + (null == determinants ? 0 : determinants.hashCode());
-    for (Integer item : determinants)
-      result = prime * result + item;
+    // independent of the order of the determinants, like equals
+    result = prime * result + (null == determinants ? 0 : determinants.hashCode());
     return result;
   }
 
@@ -36,7 +35,7 @@ public class ComparableFunctionalDependency implements Comparable<ComparableFunc
     if (obj == null) return false;
     if (getClass() != obj.getClass()) return false;
     ComparableFunctionalDependency other = (ComparableFunctionalDependency) obj;
-    if (dependant != other.dependant) return false;
+    if (!dependant.equals(other.dependant)) return false;
     if (determinants == null && other.determinants != null) return false;
     if (dependant.equals(other.dependant)) {
       for (int id : determinants) {
@@ -49,35 +48,45 @@ public class ComparableFunctionalDependency implements Comparable<ComparableFunc
     return true;
   }
   
+  /**
+   * Orders by dependant, then by the number of determinants, then by the
+   * determinants' column indexes.
+   */
   @Override
   public int compareTo(ComparableFunctionalDependency otherFd) {
-    ComparableFunctionalDependency arg0 = this;
-    ComparableFunctionalDependency arg1 = otherFd;
-
-    if (arg0 == arg1) return 0;
-    else if (arg0.dependant.equals(arg1.dependant) &&
-        arg0.determinants.equals(arg1.determinants))
-      return 0;
-    else if (arg0.dependant.equals(arg1.dependant)) {
-      for (int id : arg0.determinants) {
-        if (!arg1.determinants.contains(id)) return -1;
-      }
-      for (int id : arg1.determinants) {
-        if (!arg0.determinants.contains(id)) return 1;
-      }
+    int result = this.dependant.compareTo(otherFd.dependant);
+    if (result != 0) return result;
+    result = Integer.compare(this.determinants.size(), otherFd.determinants.size());
+    if (result != 0) return result;
+    int[] columns = sortedDeterminants(this);
+    int[] otherColumns = sortedDeterminants(otherFd);
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] != otherColumns[i]) return Integer.compare(columns[i], otherColumns[i]);
     }
     return 0;
   }
 
-  public FunctionalDependency toFunctionalDependency(String tableName, List<String> columnNames) {
+  private static int[] sortedDeterminants(ComparableFunctionalDependency fd) {
+    int[] columns = new int[fd.determinants.size()];
+    int i = 0;
+    for (int column : fd.determinants) {
+      columns[i++] = column;
+    }
+    Arrays.sort(columns);
+    return columns;
+  }
+
+  /**
+   * @param identifiers the identifier of each column, by column index
+   */
+  public FunctionalDependency toFunctionalDependency(ColumnIdentifier[] identifiers) {
     ColumnIdentifier[] combination = new ColumnIdentifier[this.determinants.size()];
     int j = 0;
     for (int i : this.determinants) {
-        combination[j] = new ColumnIdentifier(tableName, columnNames.get(i));
+        combination[j] = identifiers[i];
         j++;
     }
     ColumnCombination cc = new ColumnCombination(combination);
-    ColumnIdentifier ci = new ColumnIdentifier(tableName, columnNames.get(this.dependant));
-    return new FunctionalDependency(cc, ci);
+    return new FunctionalDependency(cc, identifiers[this.dependant]);
   }
 }
@@ -1,18 +1,30 @@
 package de.metanome.algorithms;
 
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Set;
 
 import de.metanome.algorithm_integration.input.RelationalInput;
 
-public class DifferenceSet extends LinkedHashSet<Integer> implements Comparable<DifferenceSet> {
+/**
+ * Set of column indexes, stored as a bitset of long words: membership tests
+ * are O(1), equality, hashing and subset tests work on whole words.
+ */
+public class DifferenceSet implements Comparable<DifferenceSet> {
   
+  private final long[] bits;
+
   /**
-   * 
+   * Creates an empty set.
+   * @param numberOfColumns the number of columns of the relation
    */
-  private static final long serialVersionUID = -7995827309860186725L;
+  public DifferenceSet(int numberOfColumns) {
+    this.bits = new long[(numberOfColumns + 63) >>> 6];
+  }
+
+  private DifferenceSet(long[] bits) {
+    this.bits = bits;
+  }
 
   public static Set<DifferenceSet> generateDifferenceSets(RelationalInput input) {
     Set<DifferenceSet> resultDifferenceSet = new LinkedHashSet<DifferenceSet>();
@@ -23,51 +35,143 @@ public class DifferenceSet extends LinkedHashSet<Integer> implements Comparable<
     // Compute agree sets from stripped partitions:
     Set<AgreeSet> tempAgreeSet = AgreeSet.calculateAgreeSets(strips);
 
-    List<String> columnNames = input.columnNames();
     // Complement agree sets to get difference sets : 
+    int numberOfColumns = strips.getNumberOfColumns();
     for (AgreeSet set : tempAgreeSet) {
-      DifferenceSet ds = createDifferenceSet(set, columnNames);
-      resultDifferenceSet.add(ds);
+      resultDifferenceSet.add(createDifferenceSet(set, numberOfColumns));
     }
     return resultDifferenceSet;
   }
   
-  private static DifferenceSet createDifferenceSet(AgreeSet set, List<String> columnNames) {
-    DifferenceSet result = new DifferenceSet();
-    int contains = 0;
-    for (String s : columnNames) {
-      int i = columnNames.indexOf(s);
-      if(!set.ColumnIds.contains(i))
-        result.add(i);
-      else
-        contains++;
+  private static DifferenceSet createDifferenceSet(AgreeSet set, int numberOfColumns) {
+    DifferenceSet result = new DifferenceSet(numberOfColumns);
+    for (int column = 0; column < numberOfColumns; column++) {
+      if (!set.contains(column))
+        result.add(column);
     }
-    if (contains == set.ColumnIds.size())
-      result.addAll(set.ColumnIds);
     return result;
   }
-  
+
+  public void add(int column) {
+    this.bits[column >>> 6] |= 1L << column;
+  }
+
+  public void remove(int column) {
+    this.bits[column >>> 6] &= ~(1L << column);
+  }
+
+  public boolean contains(int column) {
+    return (this.bits[column >>> 6] & (1L << column)) != 0;
+  }
+
+  public boolean isEmpty() {
+    for (long word : this.bits) {
+      if (word != 0) return false;
+    }
+    return true;
+  }
+
+  public int size() {
+    int size = 0;
+    for (long word : this.bits) {
+      size += Long.bitCount(word);
+    }
+    return size;
+  }
+
+  /**
+   * @param from the first column index to look at
+   * @return the smallest column index >= from in the set, -1 if there is none
+   */
+  public int nextSetBit(int from) {
+    int word = from >>> 6;
+    if (word >= this.bits.length) return -1;
+    long remaining = this.bits[word] & (-1L << from);
+    while (true) {
+      if (remaining != 0)
+        return (word << 6) + Long.numberOfTrailingZeros(remaining);
+      if (++word == this.bits.length)
+        return -1;
+      remaining = this.bits[word];
+    }
+  }
+
+  /**
+   * @return true if every column of this set is also in the other set
+   */
+  public boolean isSubsetOf(DifferenceSet other) {
+    for (int i = 0; i < this.bits.length; i++) {
+      if ((this.bits[i] & ~other.bits[i]) != 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the sets have a column in common
+   */
+  public boolean intersects(DifferenceSet other) {
+    for (int i = 0; i < this.bits.length; i++) {
+      if ((this.bits[i] & other.bits[i]) != 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of columns the sets have in common
+   */
+  public int intersectionSize(DifferenceSet other) {
+    int size = 0;
+    for (int i = 0; i < this.bits.length; i++) {
+      size += Long.bitCount(this.bits[i] & other.bits[i]);
+    }
+    return size;
+  }
+
+  public DifferenceSet copy() {
+    return new DifferenceSet(this.bits.clone());
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(this.bits);
+  }
+
+  @Override
   public boolean equals(Object o) {
-    DifferenceSet set = (DifferenceSet) o;
-    return (set.size() == this.size() && set.containsAll(this));
+    if (this == o) return true;
+    if (!(o instanceof DifferenceSet)) return false;
+    return Arrays.equals(this.bits, ((DifferenceSet) o).bits);
   }
 
   @Override
   public int compareTo(DifferenceSet o) {
     DifferenceSet a = this;
-    DifferenceSet b = (DifferenceSet) o;
+    DifferenceSet b = o;
     if(a == b) return 0;
     else if(b == null) return 1;
     else if(a.size() > b.size()) return 1;
     else if(b.size() > a.size()) return -1;
     else {
-      Iterator<Integer> itB = b.iterator();
-      for (Integer itemA : this) {
-        Integer itemB = itB.next();
-        if (!itemA.equals(itemB))
-         return itemA.compareTo(itemB);
+      // same size: the first differing column decides
+      int itemA = a.nextSetBit(0);
+      int itemB = b.nextSetBit(0);
+      while (itemA >= 0) {
+        if (itemA != itemB)
+          return Integer.compare(itemA, itemB);
+        itemA = a.nextSetBit(itemA + 1);
+        itemB = b.nextSetBit(itemB + 1);
       }
       return 0;
     }
   }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1)) {
+      if (builder.length() > 1) builder.append(", ");
+      builder.append(i);
+    }
+    return builder.append(']').toString();
+  }
 }
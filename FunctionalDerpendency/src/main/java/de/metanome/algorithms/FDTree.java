@@ -0,0 +1,175 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix tree of FD candidates. The column indexes on the path to a node,
+ * in ascending order, form a left-hand side; the node holds the right-hand
+ * sides of the candidates with this left-hand side. Every node also knows
+ * the right-hand sides in its subtree, so searches for one right-hand side
+ * skip all other subtrees.
+ */
+public class FDTree {
+
+  private final int numberOfColumns;
+  private final Node root = new Node();
+
+  private static class Node {
+    // created on demand, indexed by column
+    private Node[] children;
+    private final BitSet rhs = new BitSet();
+    private final BitSet rhsInSubtree = new BitSet();
+  }
+
+  public FDTree(int numberOfColumns) {
+    this.numberOfColumns = numberOfColumns;
+  }
+
+  public void add(BitSet lhs, int rhs) {
+    Node node = this.root;
+    node.rhsInSubtree.set(rhs);
+    for (int column = lhs.nextSetBit(0); column >= 0; column = lhs.nextSetBit(column + 1)) {
+      if (node.children == null) {
+        node.children = new Node[this.numberOfColumns];
+      }
+      if (node.children[column] == null) {
+        node.children[column] = new Node();
+      }
+      node = node.children[column];
+      node.rhsInSubtree.set(rhs);
+    }
+    node.rhs.set(rhs);
+  }
+
+  public void remove(BitSet lhs, int rhs) {
+    this.remove(this.root, lhs, lhs.nextSetBit(0), rhs);
+  }
+
+  // returns true if the subtree still contains the right-hand side
+  private boolean remove(Node node, BitSet lhs, int column, int rhs) {
+    if (column < 0) {
+      node.rhs.clear(rhs);
+    } else if (node.children != null && node.children[column] != null) {
+      this.remove(node.children[column], lhs, lhs.nextSetBit(column + 1), rhs);
+    }
+    boolean contained = node.rhs.get(rhs);
+    if (node.children != null) {
+      for (int i = 0; i < node.children.length && !contained; i++) {
+        contained = node.children[i] != null && node.children[i].rhsInSubtree.get(rhs);
+      }
+    }
+    if (!contained) {
+      node.rhsInSubtree.clear(rhs);
+    }
+    return contained;
+  }
+
+  /**
+   * @return true if the tree holds lhs -> rhs or an FD with a subset of lhs
+   */
+  public boolean containsFdOrGeneralization(BitSet lhs, int rhs) {
+    return this.containsFdOrGeneralization(this.root, lhs, 0, rhs);
+  }
+
+  private boolean containsFdOrGeneralization(Node node, BitSet lhs, int from, int rhs) {
+    if (node.rhs.get(rhs)) {
+      return true;
+    }
+    if (node.children == null) {
+      return false;
+    }
+    for (int column = lhs.nextSetBit(from); column >= 0; column = lhs.nextSetBit(column + 1)) {
+      Node child = node.children[column];
+      if (child != null && child.rhsInSubtree.get(rhs) && this.containsFdOrGeneralization(child, lhs, column + 1, rhs)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the left-hand sides of lhs -> rhs and all its generalizations in the tree
+   */
+  public List<BitSet> getFdAndGeneralizations(BitSet lhs, int rhs) {
+    List<BitSet> result = new ArrayList<BitSet>();
+    this.collectFdAndGeneralizations(this.root, lhs, 0, rhs, new BitSet(), result);
+    return result;
+  }
+
+  private void collectFdAndGeneralizations(Node node, BitSet lhs, int from, int rhs, BitSet path, List<BitSet> result) {
+    if (node.rhs.get(rhs)) {
+      result.add((BitSet) path.clone());
+    }
+    if (node.children == null) {
+      return;
+    }
+    for (int column = lhs.nextSetBit(from); column >= 0; column = lhs.nextSetBit(column + 1)) {
+      Node child = node.children[column];
+      if (child != null && child.rhsInSubtree.get(rhs)) {
+        path.set(column);
+        this.collectFdAndGeneralizations(child, lhs, column + 1, rhs, path, result);
+        path.clear(column);
+      }
+    }
+  }
+
+  /**
+   * @param level the size of the left-hand sides
+   * @return the left-hand sides of this size that have FDs, each with a copy of its right-hand sides
+   */
+  public Map<BitSet, BitSet> getLevel(int level) {
+    Map<BitSet, BitSet> result = new LinkedHashMap<BitSet, BitSet>();
+    this.collectLevel(this.root, level, new BitSet(), result);
+    return result;
+  }
+
+  private void collectLevel(Node node, int level, BitSet path, Map<BitSet, BitSet> result) {
+    if (level == 0) {
+      if (!node.rhs.isEmpty()) {
+        result.put((BitSet) path.clone(), (BitSet) node.rhs.clone());
+      }
+      return;
+    }
+    if (node.children == null) {
+      return;
+    }
+    for (int column = 0; column < node.children.length; column++) {
+      Node child = node.children[column];
+      if (child != null && !child.rhsInSubtree.isEmpty()) {
+        path.set(column);
+        this.collectLevel(child, level - 1, path, result);
+        path.clear(column);
+      }
+    }
+  }
+
+  public Set<ComparableFunctionalDependency> getFunctionalDependencies() {
+    Set<ComparableFunctionalDependency> result = new LinkedHashSet<ComparableFunctionalDependency>();
+    this.collectFunctionalDependencies(this.root, new ArrayList<Integer>(), result);
+    return result;
+  }
+
+  private void collectFunctionalDependencies(Node node, List<Integer> path, Set<ComparableFunctionalDependency> result) {
+    for (int rhs = node.rhs.nextSetBit(0); rhs >= 0; rhs = node.rhs.nextSetBit(rhs + 1)) {
+      result.add(new ComparableFunctionalDependency(new LinkedHashSet<Integer>(path), rhs));
+    }
+    if (node.children == null) {
+      return;
+    }
+    for (int column = 0; column < node.children.length; column++) {
+      Node child = node.children[column];
+      if (child != null && !child.rhsInSubtree.isEmpty()) {
+        path.add(column);
+        this.collectFunctionalDependencies(child, path, result);
+        path.remove(path.size() - 1);
+      }
+    }
+  }
+
+}
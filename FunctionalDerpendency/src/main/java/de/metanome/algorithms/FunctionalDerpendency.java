@@ -17,6 +17,7 @@
 package de.metanome.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
@@ -26,22 +27,29 @@ import de.metanome.algorithm_integration.algorithm_types.StringParameterAlgorith
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirementFileInput;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirementString;
-import de.metanome.algorithm_integration.configuration.ConfigurationSettingString;
 import de.metanome.algorithm_integration.input.FileInputGenerator;
 import de.metanome.algorithm_integration.result_receiver.FunctionalDependencyResultReceiver;
 
 public class FunctionalDerpendency extends FunctionalDerpendencyAlgorithm 
   implements StringParameterAlgorithm, FileInputParameterAlgorithm, FunctionalDependencyAlgorithm {
 
-  private ArrayList<ConfigurationRequirement> conf = new ArrayList<>();
+  // true if ENGINE has been set; approximate FDs are only discovered by TANE
+  private boolean engineConfigured = false;
 
   public enum Identifier {
-    INPUT_GENERATOR
+    INPUT_GENERATOR, ASYNC_RESULTS, THREADS, ENGINE, HYFD_EFFICIENCY_THRESHOLD, HYFD_MAX_LHS_SIZE, ERROR_THRESHOLD
   };
   
   @Override
   public ArrayList<ConfigurationRequirement> getConfigurationRequirements() {
+    ArrayList<ConfigurationRequirement> conf = new ArrayList<>();
     conf.add(new ConfigurationRequirementFileInput(FunctionalDerpendency.Identifier.INPUT_GENERATOR.name(), ConfigurationRequirement.ARBITRARY_NUMBER_OF_VALUES));
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.ASYNC_RESULTS.name())); // true = pass results to the receiver in batches on a writer thread
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.THREADS.name())); // number of attributes searched in parallel, 1 = sequential
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.ENGINE.name())); // FASTFDS (all agree sets up front), HYFD (sampling and validation) or TANE (level-wise on partitions)
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.HYFD_EFFICIENCY_THRESHOLD.name())); // HYFD: share of new non-FDs per comparison that keeps sampling
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.HYFD_MAX_LHS_SIZE.name())); // HYFD: maximum number of left-hand side columns, 0 = unlimited
+    conf.add(new ConfigurationRequirementString(FunctionalDerpendency.Identifier.ERROR_THRESHOLD.name())); // share of rows an approximate FD may violate (g3), 0 = exact FDs; above 0, TANE is used and other engines are rejected
 //    conf.add(new ConfigurationRequirementRelationalInput("File_Input"));
     return conf;
   }
@@ -71,20 +79,85 @@ public class FunctionalDerpendency extends FunctionalDerpendencyAlgorithm
   }
 
   @Override
-  public void setStringConfigurationValue(String identifier, String... values) {
-    ConfigurationSettingString[] sdr = new ConfigurationSettingString[values.length];
-    int count = 0;
-    for(String value : values) {
-      sdr[count] = new ConfigurationSettingString(value);
-      count++;
+  public void setStringConfigurationValue(String identifier, String... values) throws AlgorithmConfigurationException {
+    if (FunctionalDerpendency.Identifier.ASYNC_RESULTS.name().equals(identifier)) {
+      this.asyncResults = parseBoolean(identifier, values);
+    } else if (FunctionalDerpendency.Identifier.THREADS.name().equals(identifier)) {
+      this.numberOfThreads = parseInt(identifier, 1, values);
+    } else if (FunctionalDerpendency.Identifier.ENGINE.name().equals(identifier)) {
+      Engine engine;
+      try {
+        engine = Engine.valueOf(values[0].trim().toUpperCase());
+      } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+        throw new AlgorithmConfigurationException("Expected one of " + Arrays.toString(Engine.values()) + " for " + identifier);
+      }
+      checkApproximateEngine(engine, this.errorThreshold);
+      this.engine = engine;
+      this.engineConfigured = true;
+    } else if (FunctionalDerpendency.Identifier.HYFD_EFFICIENCY_THRESHOLD.name().equals(identifier)) {
+      this.hyfdEfficiencyThreshold = parseProbability(identifier, values);
+    } else if (FunctionalDerpendency.Identifier.HYFD_MAX_LHS_SIZE.name().equals(identifier)) {
+      this.hyfdMaxLhsSize = parseInt(identifier, 0, values);
+    } else if (FunctionalDerpendency.Identifier.ERROR_THRESHOLD.name().equals(identifier)) {
+      double errorThreshold = parseErrorThreshold(identifier, values);
+      if (this.engineConfigured) {
+        checkApproximateEngine(this.engine, errorThreshold);
+      }
+      this.errorThreshold = errorThreshold;
+    } else {
+      throw new AlgorithmConfigurationException("Unknown configuration identifier: " + identifier);
     }
-    ConfigurationRequirementString req = new ConfigurationRequirementString(identifier, values.length);
+  }
+
+  private static void checkApproximateEngine(Engine engine, double errorThreshold) throws AlgorithmConfigurationException {
+    if (errorThreshold > 0 && engine != Engine.TANE) {
+      throw new AlgorithmConfigurationException("Approximate FDs (" + Identifier.ERROR_THRESHOLD.name() + " > 0) are only discovered by "
+          + Engine.TANE + ", not by " + engine);
+    }
+  }
+
+  private static boolean parseBoolean(String identifier, String... values) throws AlgorithmConfigurationException {
+    if (values.length > 0) {
+      String value = values[0].trim();
+      if ("true".equalsIgnoreCase(value))
+        return true;
+      if ("false".equalsIgnoreCase(value))
+        return false;
+    }
+    throw new AlgorithmConfigurationException("Expected true or false for " + identifier);
+  }
+
+  private static int parseInt(String identifier, int minimum, String... values) throws AlgorithmConfigurationException {
+    try {
+      int value = Integer.parseInt(values[0].trim());
+      if (value >= minimum)
+        return value;
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      // handled below
+    }
+    throw new AlgorithmConfigurationException("Expected a number >= " + minimum + " for " + identifier);
+  }
+
+  private static double parseProbability(String identifier, String... values) throws AlgorithmConfigurationException {
+    try {
+      double value = Double.parseDouble(values[0].trim());
+      if (value > 0 && value < 1)
+        return value;
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      // handled below
+    }
+    throw new AlgorithmConfigurationException("Expected a probability in (0, 1) for " + identifier);
+  }
+
+  private static double parseErrorThreshold(String identifier, String... values) throws AlgorithmConfigurationException {
     try {
-      req.setSettings(sdr);
-    } catch (AlgorithmConfigurationException e) { e.printStackTrace(); }
-    if ((count = conf.indexOf(req)) >= 0) {
-      conf.set(count, req);
+      double value = Double.parseDouble(values[0].trim());
+      if (value >= 0 && value < 1)
+        return value;
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      // handled below
     }
+    throw new AlgorithmConfigurationException("Expected an error threshold in [0, 1) for " + identifier);
   }
 
 //  @Override
@@ -96,6 +169,10 @@ public class FunctionalDerpendency extends FunctionalDerpendencyAlgorithm
   @Override
   public void setFileInputConfigurationValue(String identifier, FileInputGenerator... values)
       throws AlgorithmConfigurationException {
-      super.inputGenerator = values[0];
+    if (!FunctionalDerpendency.Identifier.INPUT_GENERATOR.name().equals(identifier))
+      throw new AlgorithmConfigurationException("Input generator does not match the expected identifier: " + identifier + " (given) but " + FunctionalDerpendency.Identifier.INPUT_GENERATOR.name() + " (expected)");
+    if (values.length == 0)
+      throw new AlgorithmConfigurationException("Expected an input generator for " + identifier);
+    super.inputGenerator = values[0];
   }
 }
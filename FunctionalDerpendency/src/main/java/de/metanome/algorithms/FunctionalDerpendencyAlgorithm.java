@@ -1,24 +1,43 @@
 package de.metanome.algorithms;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
+import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.input.FileInputGenerator;
 import de.metanome.algorithm_integration.input.RelationalInput;
 import de.metanome.algorithm_integration.result_receiver.FunctionalDependencyResultReceiver;
 
 public class FunctionalDerpendencyAlgorithm {
 
+  public enum Engine {
+    FASTFDS, HYFD, TANE
+  };
+
   protected FileInputGenerator inputGenerator = null;
   protected FunctionalDependencyResultReceiver resultReceiver = null;
   protected String[] tableNames = null;
   protected List<String> columnNames = null;
   protected String tableName = "";
+  // if set to true, results are passed to the result receiver in batches by a separate thread
+  protected boolean asyncResults = false;
+  // number of attributes searched for left-hand sides at the same time, 1 = sequential
+  protected int numberOfThreads = 1;
+  protected Engine engine = Engine.FASTFDS;
+  // HyFD: share of comparisons (validations) that has to yield new non-FDs (invalid FDs) to keep (go back to) sampling
+  protected double hyfdEfficiencyThreshold = 0.01;
+  // HyFD: maximum number of columns of a left-hand side, 0 = unlimited
+  protected int hyfdMaxLhsSize = 0;
+  // share of rows an FD may violate (g3 error), 0 = exact FDs; approximate FDs are discovered level-wise
+  protected double errorThreshold = 0;
   
   public void execute() throws AlgorithmExecutionException {
     /*
@@ -36,106 +55,258 @@ public class FunctionalDerpendencyAlgorithm {
     columnNames = input.columnNames();
     tableName = input.relationName();
 
-    Set<DifferenceSet> diffSets = DifferenceSet.generateDifferenceSets(input);
-    Set<ComparableFunctionalDependency> result = new LinkedHashSet<ComparableFunctionalDependency>();
-    List<Integer> ordering = new ArrayList<Integer>();
-    for (int i = 0; i < columnNames.size(); i++) {
-      ordering.add(i);
+    // the order does not depend on the search order
+    List<ComparableFunctionalDependency> sortedResult = new ArrayList<ComparableFunctionalDependency>(this.discover(input));
+    Collections.sort(sortedResult);
+    
+    // identifiers for the results, created once per column
+    ColumnIdentifier[] identifiers = new ColumnIdentifier[columnNames.size()];
+    for (int i = 0; i < identifiers.length; i++) {
+      identifiers[i] = new ColumnIdentifier(tableName, columnNames.get(i));
+    }
+    // results are passed on by a writer thread if requested, so the search does not wait for the receiver
+    AsyncFunctionalDependencyReceiver asyncReceiver = this.asyncResults
+        ? new AsyncFunctionalDependencyReceiver(this.resultReceiver)
+        : null;
+    FunctionalDependencyResultReceiver receiver = asyncReceiver != null ? asyncReceiver : this.resultReceiver;
+    try {
+      for (ComparableFunctionalDependency dep : sortedResult) {
+        receiver.receiveResult(dep.toFunctionalDependency(identifiers));
+      }
+      if (asyncReceiver != null) {
+        // forward the last results, fails if the result receiver failed
+        asyncReceiver.close();
+      }
+    } finally {
+      if (asyncReceiver != null) {
+        asyncReceiver.closeQuietly();
+      }
     }
-    for (int attr = 0; attr < columnNames.size(); attr++) { 
-      Set<DifferenceSet> DA = computeSubSets(diffSets, attr);
-      Set<DifferenceSet> DA2 = new LinkedHashSet<DifferenceSet>(DA);
-      if (!DA.isEmpty()) {
-        List<Integer> order = new ArrayList<Integer>();
-        for (Integer item : ordering) {
-          if (item != attr) order.add(item);
+  }
+  
+  /**
+   * Discovers the minimal FDs of the remaining rows of the input with the
+   * configured engine.
+   * @param input the input, positioned at the first data row
+   * @return the FDs, in no particular order
+   */
+  Set<ComparableFunctionalDependency> discover(RelationalInput input) {
+    if (this.engine == Engine.TANE || this.errorThreshold > 0) {
+      return new Tane(StrippedPartitions.createStrippedPartitons(input), this.errorThreshold).discover();
+    } else if (this.engine == Engine.HYFD) {
+      StrippedPartitions partitions = StrippedPartitions.createStrippedPartitons(input);
+      return new HyFD(partitions, this.hyfdEfficiencyThreshold, this.hyfdMaxLhsSize).discover();
+    }
+    return this.discoverWithFastFds(input);
+  }
+
+  private Set<ComparableFunctionalDependency> discoverWithFastFds(RelationalInput input) {
+    int numberOfColumns = input.numberOfColumns();
+    Set<DifferenceSet> diffSets = DifferenceSet.generateDifferenceSets(input);
+    Set<ComparableFunctionalDependency> result = Collections.newSetFromMap(
+        new ConcurrentHashMap<ComparableFunctionalDependency, Boolean>());
+    if (this.numberOfThreads > 1) {
+      // the searches of the attributes are independent; idle workers take the remaining ones
+      ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+      try {
+        List<AttributeSearch> searches = new ArrayList<AttributeSearch>(numberOfColumns);
+        for (int attr = 0; attr < numberOfColumns; attr++) {
+          AttributeSearch search = new AttributeSearch(diffSets, attr, numberOfColumns, result);
+          searches.add(search);
+          pool.execute(search);
+        }
+        for (AttributeSearch search : searches) {
+          search.join();
         }
-        result.addAll(findCovers(attr, DA, DA2, new LinkedList<Integer>(), order));
-      } 
+      } finally {
+        pool.shutdownNow();
+      }
+    } else {
+      for (int attr = 0; attr < numberOfColumns; attr++) { 
+        searchAttribute(diffSets, attr, numberOfColumns, result);
+      }
     }
-    
-    for (ComparableFunctionalDependency dep : result) {
-      this.resultReceiver.receiveResult(dep.toFunctionalDependency(tableName, columnNames));
+    return result;
+  }
+
+  private void searchAttribute(Set<DifferenceSet> diffSets, int attr, int numberOfColumns,
+      Set<ComparableFunctionalDependency> result) {
+    List<DifferenceSet> DA = computeSubSets(diffSets, attr);
+    if (DA.isEmpty()) {
+      // no two rows differ in attr: it is constant
+      result.add(new ComparableFunctionalDependency(new LinkedHashSet<Integer>(), attr));
+    } else if (!DA.get(0).isEmpty()) {
+      // (an empty set means two rows differ only in attr, so nothing determines it)
+      new CoverSearch(attr, DA, numberOfColumns).findCovers(result);
+    } 
+  }
+
+  private class AttributeSearch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Set<DifferenceSet> diffSets;
+    private final int attr;
+    private final int numberOfColumns;
+    private final Set<ComparableFunctionalDependency> result;
+
+    private AttributeSearch(Set<DifferenceSet> diffSets, int attr, int numberOfColumns,
+        Set<ComparableFunctionalDependency> result) {
+      this.diffSets = diffSets;
+      this.attr = attr;
+      this.numberOfColumns = numberOfColumns;
+      this.result = result;
+    }
+
+    @Override
+    protected void compute() {
+      searchAttribute(this.diffSets, this.attr, this.numberOfColumns, this.result);
     }
   }
-  
-  private Set<ComparableFunctionalDependency> findCovers(Integer attribute, Set<DifferenceSet> differenceSets, 
-      Set<DifferenceSet> uncoveredDifferenceSets, List<Integer> path, List<Integer> ordering) {
-    Set<ComparableFunctionalDependency> result = new LinkedHashSet<ComparableFunctionalDependency>();
-    if (ordering.isEmpty() && !uncoveredDifferenceSets.isEmpty()) {
-      return new LinkedHashSet<ComparableFunctionalDependency>(); // no FDs here 
+
+  /**
+   * FastFDs depth-first search for the minimal covers of the difference sets
+   * of one attribute; each cover is the left-hand side of a minimal FD. The
+   * state of each depth is kept in preallocated bitsets over the difference
+   * sets, so backtracking just returns to the previous depth.
+   */
+  private static class CoverSearch {
+    private final int attribute;
+    private final int numberOfSets;
+    // for each column, the difference sets (by index) that contain it
+    private final long[][] containing;
+    // for each depth, the sets hit by exactly one column of the path and by more than one
+    private final long[][] hitOnce;
+    private final long[][] hitMore;
+    // for each depth, the columns to try and the number of uncovered sets they hit
+    private final int[][] candidates;
+    private final int[][] hits;
+    private final int[] path;
+
+    private CoverSearch(int attribute, List<DifferenceSet> differenceSets, int numberOfColumns) {
+      this.attribute = attribute;
+      this.numberOfSets = differenceSets.size();
+      int words = (this.numberOfSets + 63) >>> 6;
+      this.containing = new long[numberOfColumns][words];
+      for (int i = 0; i < this.numberOfSets; i++) {
+        DifferenceSet set = differenceSets.get(i);
+        for (int column = set.nextSetBit(0); column >= 0; column = set.nextSetBit(column + 1)) {
+          this.containing[column][i >>> 6] |= 1L << i;
+        }
+      }
+      this.hitOnce = new long[numberOfColumns + 1][words];
+      this.hitMore = new long[numberOfColumns + 1][words];
+      this.candidates = new int[numberOfColumns + 1][numberOfColumns];
+      this.hits = new int[numberOfColumns + 1][numberOfColumns];
+      this.path = new int[numberOfColumns];
     }
-    if (uncoveredDifferenceSets.isEmpty()) {
-      Set<DifferenceSet> DA = computeSubSets(differenceSets, attribute);
-      int coverSize = computeCoverSize(DA, path) + 1;
-      if (coverSize >= path.size()) {
-        int ident = attribute;
-        for (DifferenceSet set : differenceSets) {
-          ArrayList<Integer> identifiers = new ArrayList<Integer>();
-          for (Integer id : set) {
-            identifiers.add(id);
-          }
-          result.add(new ComparableFunctionalDependency(new LinkedHashSet<Integer>(identifiers), ident));
+
+    private void findCovers(Set<ComparableFunctionalDependency> result) {
+      int[] ordering = new int[this.containing.length];
+      for (int column = 0; column < ordering.length; column++) {
+        ordering[column] = column;
+      }
+      this.findCovers(0, ordering, 0, ordering.length, result);
+    }
+
+    private void findCovers(int depth, int[] ordering, int from, int to, Set<ComparableFunctionalDependency> result) {
+      long[] once = this.hitOnce[depth];
+      long[] more = this.hitMore[depth];
+
+      // order the columns by the number of uncovered sets they hit, most first
+      int[] nextCandidates = this.candidates[depth];
+      int[] nextHits = this.hits[depth];
+      int numberOfCandidates = 0;
+      int uncovered = 0;
+      for (int word = 0; word < once.length; word++) {
+        uncovered += Long.bitCount(~(once[word] | more[word]));
+      }
+      // bits beyond the last set are never hit
+      uncovered -= (once.length << 6) - this.numberOfSets;
+      if (uncovered == 0) {
+        this.addCover(depth, result);
+        return;
+      }
+      for (int i = from; i < to; i++) {
+        int column = ordering[i];
+        long[] containingColumn = this.containing[column];
+        int hit = 0;
+        for (int word = 0; word < once.length; word++) {
+          hit += Long.bitCount(containingColumn[word] & ~(once[word] | more[word]));
+        }
+        if (hit == 0) continue;
+        int position = numberOfCandidates++;
+        while (position > 0 && nextHits[position - 1] < hit) {
+          nextCandidates[position] = nextCandidates[position - 1];
+          nextHits[position] = nextHits[position - 1];
+          position--;
+        }
+        nextCandidates[position] = column;
+        nextHits[position] = hit;
+      }
+
+      long[] nextOnce = this.hitOnce[depth + 1];
+      long[] nextMore = this.hitMore[depth + 1];
+      for (int i = 0; i < numberOfCandidates; i++) {
+        int column = nextCandidates[i];
+        long[] containingColumn = this.containing[column];
+        for (int word = 0; word < once.length; word++) {
+          nextMore[word] = more[word] | (once[word] & containingColumn[word]);
+          nextOnce[word] = (once[word] & ~containingColumn[word]) | (containingColumn[word] & ~once[word] & ~more[word]);
         }
-        return result;
-      } else {
-        return new LinkedHashSet<ComparableFunctionalDependency>(); // wasted effort,non-minimal result
+        // a column of the path that no longer hits a set alone is redundant, as in all extensions of the path
+        if (!this.isMinimal(depth, nextOnce)) continue;
+        this.path[depth] = column;
+        this.findCovers(depth + 1, nextCandidates, i + 1, numberOfCandidates, result);
       }
     }
 
-//  RecursiveCase : 
-    for (Integer attr : ordering) {
-      Set<DifferenceSet> nextSets = new HashSet<DifferenceSet>();
-      for (DifferenceSet ds : uncoveredDifferenceSets) {
-        if (covers(ds, attr))
-          nextSets.add(ds);
+    private boolean isMinimal(int depth, long[] once) {
+      for (int i = 0; i < depth; i++) {
+        long[] containingColumn = this.containing[this.path[i]];
+        boolean hitAlone = false;
+        for (int word = 0; word < once.length && !hitAlone; word++) {
+          hitAlone = (containingColumn[word] & once[word]) != 0;
+        }
+        if (!hitAlone) return false;
       }
-      uncoveredDifferenceSets.removeAll(nextSets); //difference sets of uncoveredDifferenceSets not covered by attr;
-      List<Integer> order = new ArrayList<Integer>();
-      for (Integer item : ordering) {
-        if (!item.equals(attr)) order.add(item);
+      return true;
+    }
+
+    private void addCover(int depth, Set<ComparableFunctionalDependency> result) {
+      int[] columns = Arrays.copyOf(this.path, depth);
+      Arrays.sort(columns);
+      Set<Integer> identifiers = new LinkedHashSet<Integer>();
+      for (int column : columns) {
+        identifiers.add(column);
       }
-      path.add(attr);
-      result.addAll(findCovers(attribute, differenceSets, uncoveredDifferenceSets, path, order));
+      result.add(new ComparableFunctionalDependency(identifiers, this.attribute));
     }
-    return result;
   }
 
-  private Set<DifferenceSet> computeSubSets(Set<DifferenceSet> diffSets, int attr) {
-    Set<DifferenceSet> result = new LinkedHashSet<DifferenceSet>();
-    
-    DifferenceSet newSet;
+  /**
+   * @return the minimal sets among the difference sets that contain attr,
+   * without attr, by ascending size
+   */
+  private List<DifferenceSet> computeSubSets(Set<DifferenceSet> diffSets, int attr) {
+    List<DifferenceSet> sets = new ArrayList<DifferenceSet>();
     for (DifferenceSet set : diffSets) {
-      newSet = (DifferenceSet) set.clone();
-      if (newSet.contains(attr)) 
+      if (set.contains(attr)) {
+        DifferenceSet newSet = set.copy();
         newSet.remove(attr);
-      if (!newSet.isEmpty())
-        result.add(newSet);
-    }
-    return result;
-  }
-  
-  protected boolean covers(DifferenceSet t, Integer attribute) {
-    for (Integer attr : t) {
-      if (attr.equals(attribute))
-        return true;
+        sets.add(newSet);
+      }
     }
-    return false;
-  }
-
-  private int computeCoverSize(Set<DifferenceSet> dA, List<Integer> path) {
-    int biggestCover = 0;
-    for (DifferenceSet set : dA) {
-      int counter = 0;
-      for (Integer column : set) {
-        if (path.contains(column)) {
-          counter++;
-        }
+    Collections.sort(sets);
+    List<DifferenceSet> result = new ArrayList<DifferenceSet>();
+    for (DifferenceSet set : sets) {
+      boolean minimal = true;
+      for (int i = 0; i < result.size() && minimal; i++) {
+        minimal = !result.get(i).isSubsetOf(set);
       }
-      if (counter > biggestCover)
-        biggestCover += counter;
+      if (minimal)
+        result.add(set);
     }
-    return biggestCover;
+    return result;
   }
   
 }
@@ -0,0 +1,279 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Hybrid FD discovery (HyFD). The agree set of any two rows is a non-FD:
+ * it does not determine the columns outside of it. Sampling compares rows
+ * that are close to each other in the clusters of a column and specializes
+ * the FD candidates in an {@link FDTree} with the new non-FDs. Validation
+ * then checks the candidates level by level on the stripped partitions;
+ * the rows that violate a candidate give another non-FD. Sampling goes on
+ * as long as it finds enough new non-FDs per comparison, validation hands
+ * back to sampling whenever too many candidates of a level are invalid. The
+ * candidates left after the last level are the minimal FDs.
+ */
+public class HyFD {
+
+  private final StrippedPartitions partitions;
+  private final int[][] clusterIds;
+  private final int numberOfColumns;
+  private final int maxLhsSize;
+  private double efficiencyThreshold;
+
+  private final FDTree candidates;
+  private final Set<BitSet> nonFds = new HashSet<BitSet>();
+  // non-FDs that have not specialized the candidates yet
+  private final List<BitSet> newNonFds = new ArrayList<BitSet>();
+  // sampling progress of each column, most efficient first; null before the first sampling
+  private PriorityQueue<Sampling> samplings = null;
+
+  /**
+   * @param partitions the stripped partitions of the relation
+   * @param efficiencyThreshold the share of comparisons (of validations) that has to yield
+   *   new non-FDs (invalid candidates) to keep sampling (to go back to sampling)
+   * @param maxLhsSize the maximum number of columns of a left-hand side, 0 = unlimited
+   */
+  public HyFD(StrippedPartitions partitions, double efficiencyThreshold, int maxLhsSize) {
+    this.partitions = partitions;
+    this.clusterIds = partitions.getClusterIdsByRow();
+    this.numberOfColumns = partitions.getNumberOfColumns();
+    this.efficiencyThreshold = efficiencyThreshold;
+    this.maxLhsSize = maxLhsSize > 0 ? maxLhsSize : this.numberOfColumns;
+    this.candidates = new FDTree(this.numberOfColumns);
+  }
+
+  public Set<ComparableFunctionalDependency> discover() {
+    // most general candidates: every column is constant
+    for (int rhs = 0; rhs < this.numberOfColumns; rhs++) {
+      this.candidates.add(new BitSet(), rhs);
+    }
+    this.sample();
+    this.induce();
+
+    for (int level = 0; level <= this.maxLhsSize; level++) {
+      Map<BitSet, BitSet> fds = this.candidates.getLevel(level);
+      int validations = 0;
+      int invalid = 0;
+      for (Map.Entry<BitSet, BitSet> fd : fds.entrySet()) {
+        validations += fd.getValue().cardinality();
+        invalid += this.validate(fd.getKey(), fd.getValue());
+      }
+      this.induce();
+      if (invalid > this.efficiencyThreshold * validations) {
+        this.sample();
+        this.induce();
+      }
+    }
+    return this.candidates.getFunctionalDependencies();
+  }
+
+  private static class Sampling {
+    private final int column;
+    private int window = 0;
+    private double efficiency = 0;
+
+    private Sampling(int column) {
+      this.column = column;
+    }
+  }
+
+  /**
+   * Compares rows within the clusters of each column, first with their
+   * direct successor, then with rows further away, as long as the columns
+   * keep yielding new non-FDs.
+   */
+  private void sample() {
+    if (this.samplings == null) {
+      this.samplings = new PriorityQueue<Sampling>(Math.max(1, this.numberOfColumns), new Comparator<Sampling>() {
+        @Override
+        public int compare(Sampling a, Sampling b) {
+          return Double.compare(b.efficiency, a.efficiency);
+        }
+      });
+      for (int column = 0; column < this.numberOfColumns; column++) {
+        Sampling sampling = new Sampling(column);
+        if (this.runWindow(sampling)) {
+          this.samplings.add(sampling);
+        }
+      }
+    } else {
+      // later rounds go further, as validation found sampling to be worthwhile
+      this.efficiencyThreshold /= 2;
+    }
+    while (!this.samplings.isEmpty() && this.samplings.peek().efficiency >= this.efficiencyThreshold) {
+      Sampling sampling = this.samplings.poll();
+      if (this.runWindow(sampling)) {
+        this.samplings.add(sampling);
+      }
+    }
+  }
+
+  // returns false if the clusters of the column have no more rows at the next distance
+  private boolean runWindow(Sampling sampling) {
+    sampling.window++;
+    int comparisons = 0;
+    int found = 0;
+    for (int[] cluster : this.partitions.getPartition(sampling.column)) {
+      for (int i = 0; i + sampling.window < cluster.length; i++) {
+        comparisons++;
+        if (this.addNonFd(cluster[i], cluster[i + sampling.window])) {
+          found++;
+        }
+      }
+    }
+    sampling.efficiency = comparisons == 0 ? 0 : (double) found / comparisons;
+    return comparisons > 0;
+  }
+
+  // returns true if the agree set of the rows is a new non-FD
+  private boolean addNonFd(int row, int otherRow) {
+    int[] ids = this.clusterIds[row];
+    int[] otherIds = this.clusterIds[otherRow];
+    BitSet agreeSet = new BitSet(this.numberOfColumns);
+    for (int column = 0; column < this.numberOfColumns; column++) {
+      if (ids[column] == otherIds[column]) {
+        agreeSet.set(column);
+      }
+    }
+    if (this.nonFds.add(agreeSet)) {
+      this.newNonFds.add(agreeSet);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Specializes the candidates with the new non-FDs: every candidate whose
+   * left-hand side is in a non-FD, with a right-hand side outside of it,
+   * is replaced by the minimal extensions with a column outside of it.
+   */
+  private void induce() {
+    // larger non-FDs first: they remove the most candidates at once
+    Collections.sort(this.newNonFds, new Comparator<BitSet>() {
+      @Override
+      public int compare(BitSet a, BitSet b) {
+        return Integer.compare(b.cardinality(), a.cardinality());
+      }
+    });
+    for (BitSet nonFd : this.newNonFds) {
+      for (int rhs = nonFd.nextClearBit(0); rhs < this.numberOfColumns; rhs = nonFd.nextClearBit(rhs + 1)) {
+        for (BitSet lhs : this.candidates.getFdAndGeneralizations(nonFd, rhs)) {
+          this.candidates.remove(lhs, rhs);
+          if (lhs.cardinality() == this.maxLhsSize) continue;
+          for (int column = nonFd.nextClearBit(0); column < this.numberOfColumns; column = nonFd.nextClearBit(column + 1)) {
+            if (column == rhs) continue;
+            lhs.set(column);
+            if (!this.candidates.containsFdOrGeneralization(lhs, rhs)) {
+              this.candidates.add(lhs, rhs);
+            }
+            lhs.clear(column);
+          }
+        }
+      }
+    }
+    this.newNonFds.clear();
+  }
+
+  /**
+   * Checks lhs -> rhs on the clusters of the first lhs column: the rows of
+   * a cluster that agree on the other lhs columns have to agree on each rhs
+   * column. The first violating rows of each rhs column give a new non-FD.
+   * @return the number of invalid rhs columns
+   */
+  private int validate(BitSet lhs, BitSet rhs) {
+    BitSet open = (BitSet) rhs.clone();
+    int numberOfRows = this.clusterIds.length;
+    int pivot = lhs.nextSetBit(0);
+    if (pivot < 0) {
+      // all rows have to agree with the first one
+      for (int row = 1; row < numberOfRows && !open.isEmpty(); row++) {
+        this.refute(0, row, open);
+      }
+      return rhs.cardinality() - open.cardinality();
+    }
+
+    int[] others = new int[lhs.cardinality() - 1];
+    for (int i = 0, column = lhs.nextSetBit(pivot + 1); column >= 0; column = lhs.nextSetBit(column + 1)) {
+      others[i++] = column;
+    }
+    Map<ClusterKey, Integer> firstRows = new HashMap<ClusterKey, Integer>();
+    for (int[] cluster : this.partitions.getPartition(pivot)) {
+      if (others.length == 0) {
+        for (int i = 1; i < cluster.length && !open.isEmpty(); i++) {
+          this.refute(cluster[0], cluster[i], open);
+        }
+      } else {
+        firstRows.clear();
+        for (int i = 0; i < cluster.length && !open.isEmpty(); i++) {
+          ClusterKey key = ClusterKey.of(this.clusterIds[cluster[i]], others);
+          if (key == null) continue; // unique on the other columns
+          Integer firstRow = firstRows.get(key);
+          if (firstRow == null) {
+            firstRows.put(key, cluster[i]);
+          } else {
+            this.refute(firstRow, cluster[i], open);
+          }
+        }
+      }
+      if (open.isEmpty()) break;
+    }
+    return rhs.cardinality() - open.cardinality();
+  }
+
+  // removes the rhs columns on which the rows differ and records the rows' non-FD
+  private void refute(int row, int otherRow, BitSet rhs) {
+    int[] ids = this.clusterIds[row];
+    int[] otherIds = this.clusterIds[otherRow];
+    boolean refuted = false;
+    for (int column = rhs.nextSetBit(0); column >= 0; column = rhs.nextSetBit(column + 1)) {
+      if (ids[column] != otherIds[column]) {
+        rhs.clear(column);
+        refuted = true;
+      }
+    }
+    if (refuted) {
+      this.addNonFd(row, otherRow);
+    }
+  }
+
+  // cluster ids of a row in some columns, hashable
+  private static class ClusterKey {
+    private final int[] ids;
+
+    private ClusterKey(int[] ids) {
+      this.ids = ids;
+    }
+
+    // returns null if the row has no cluster in one of the columns
+    private static ClusterKey of(int[] clusterIds, int[] columns) {
+      int[] ids = new int[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        ids[i] = clusterIds[columns[i]];
+        if (ids[i] < 0) return null;
+      }
+      return new ClusterKey(ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(this.ids);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof ClusterKey && Arrays.equals(this.ids, ((ClusterKey) obj).ids);
+    }
+  }
+
+}
@@ -1,12 +0,0 @@
-package de.metanome.algorithms;
-
-import java.util.LinkedHashMap;
-
-public class PartitionMap extends LinkedHashMap<String, ComparableOpenBitSet> {
-  
-  /**
-   * 
-   */
-  private static final long serialVersionUID = -7117327386686678653L;
-
-}
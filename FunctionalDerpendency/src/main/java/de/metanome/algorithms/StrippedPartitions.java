@@ -1,111 +1,244 @@
 package de.metanome.algorithms;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
 
-public class StrippedPartitions extends LinkedHashMap<Integer, LinkedList<ComparableOpenBitSet>> {
+/**
+ * Stripped partitions of all columns of a relation: for each column, the
+ * clusters of rows that share a value, each cluster an ascending array of
+ * row numbers. Clusters of a single row are dropped. Null values are equal
+ * to each other.
+ */
+public class StrippedPartitions {
   
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final List<List<int[]>> partitions;
+  private final int numberOfRows;
+
+  private StrippedPartitions(List<List<int[]>> partitions, int numberOfRows) {
+    this.partitions = partitions;
+    this.numberOfRows = numberOfRows;
+  }
+
   /**
-   * 
+   * Reads all remaining rows of the input in a single pass. Each value gets
+   * a cluster id per column (in order of first appearance); afterwards, the
+   * rows are distributed to their clusters by counting sort.
    */
-  private static final long serialVersionUID = -533192034832365886L;
-  
-  public static String NULL = "NULL#" + System.currentTimeMillis();
-//  public static String NULL = "NULL";
-  
-  public int partitionCardinalitySum = 0;
-  
-  
-  private void put(Integer key, ComparableOpenBitSet object) {
-    LinkedList<ComparableOpenBitSet> item = this.get(key);
-    if(item == null)
-      item = new LinkedList<ComparableOpenBitSet>();
-    item.add(object);
-    this.put(key, item);
-  }
-  
   public static StrippedPartitions createStrippedPartitons (RelationalInput input) {
-    Map<Integer, Tuple<PartitionMap, Integer>> partitions = new LinkedHashMap<Integer, Tuple<PartitionMap, Integer>>();
-        
-    for (int column = 0; column < input.numberOfColumns(); column++) {
-      partitions.put(column, new Tuple<PartitionMap, Integer>(new PartitionMap(), 0));
+    int numberOfColumns = input.numberOfColumns();
+    List<Map<String, Integer>> dictionaries = new ArrayList<Map<String, Integer>>(numberOfColumns);
+    int[][] clusterIds = new int[numberOfColumns][INITIAL_CAPACITY];
+    for (int column = 0; column < numberOfColumns; column++) {
+      dictionaries.add(new HashMap<String, Integer>());
     }
+
     List<String> line;
     int lineCounter = 0;
-    int columnCounter;
+    int capacity = INITIAL_CAPACITY;
     try {
       while ((line = input.next()) != null) {
-        columnCounter = 0;
-        for (String column : line) {
-          if (null == column)
-            column = StrippedPartitions.NULL;
-          if(partitions.get(columnCounter).left.get(column) == null)
-            partitions.get(columnCounter).left.put(column, new ComparableOpenBitSet());
-          partitions.get(columnCounter).left.get(column).set(lineCounter);
-          partitions.get(columnCounter).right++;
-          columnCounter++;
+        if (lineCounter == capacity) {
+          capacity *= 2;
+          for (int column = 0; column < numberOfColumns; column++) {
+            clusterIds[column] = Arrays.copyOf(clusterIds[column], capacity);
+          }
+        }
+        for (int column = 0; column < numberOfColumns; column++) {
+          // missing values are nulls, nulls are equal to each other
+          String value = column < line.size() ? line.get(column) : null;
+          Map<String, Integer> dictionary = dictionaries.get(column);
+          Integer clusterId = dictionary.get(value);
+          if (clusterId == null) {
+            clusterId = dictionary.size();
+            dictionary.put(value, clusterId);
+          }
+          clusterIds[column][lineCounter] = clusterId;
         }
         lineCounter++;
       }
     } catch (InputIterationException e) {
       // empty file or EoF reached 
     }
-    StrippedPartitions strips = optimizePartitions(partitions);
-    partitions.clear();
-    return strips;
+
+    List<List<int[]>> partitions = new ArrayList<List<int[]>>(numberOfColumns);
+    for (int column = 0; column < numberOfColumns; column++) {
+      int numberOfClusters = dictionaries.get(column).size();
+      dictionaries.set(column, null);
+      partitions.add(strip(clusterIds[column], lineCounter, numberOfClusters));
+      clusterIds[column] = null;
+    }
+    return new StrippedPartitions(partitions, lineCounter);
+  }
+
+  private static List<int[]> strip(int[] clusterIds, int numberOfRows, int numberOfClusters) {
+    int[] sizes = new int[numberOfClusters];
+    for (int row = 0; row < numberOfRows; row++) {
+      sizes[clusterIds[row]]++;
+    }
+    int[][] clusters = new int[numberOfClusters][];
+    int[] fill = new int[numberOfClusters];
+    List<int[]> partition = new ArrayList<int[]>();
+    for (int row = 0; row < numberOfRows; row++) {
+      int clusterId = clusterIds[row];
+      if (sizes[clusterId] < 2) {
+        continue;
+      }
+      if (clusters[clusterId] == null) {
+        // clusters are listed in order of their first row
+        clusters[clusterId] = new int[sizes[clusterId]];
+        partition.add(clusters[clusterId]);
+      }
+      clusters[clusterId][fill[clusterId]++] = row;
+    }
+    return partition;
+  }
+
+  public int getNumberOfColumns() {
+    return this.partitions.size();
+  }
+
+  public int getNumberOfRows() {
+    return this.numberOfRows;
+  }
+
+  /**
+   * @param column the column index
+   * @return the clusters of the column, each an ascending array of row numbers
+   */
+  public List<int[]> getPartition(int column) {
+    return this.partitions.get(column);
   }
 
-  private static StrippedPartitions optimizePartitions(Map<Integer, Tuple<PartitionMap, Integer>> partitions) {
-    StrippedPartitions strippedPartitions = new StrippedPartitions();
-    for(Entry<Integer, Tuple<PartitionMap, Integer>> column : partitions.entrySet()) {
-      int partitionCount = column.getValue().left.values().size();
-      int partitionCardinalitySum = column.getValue().right;
-      for(ComparableOpenBitSet object : column.getValue().left.values()) {
-        if ((object.cardinality() > 1) || (partitionCount == partitionCardinalitySum)) {
-          strippedPartitions.put(column.getKey(), object);
+  /**
+   * @return for each row, the index of its cluster in each column; rows
+   * without a cluster in a column get an id of their own (-1 - row)
+   */
+  public int[][] getClusterIdsByRow() {
+    int numberOfColumns = this.getNumberOfColumns();
+    int[][] clusterIds = new int[this.numberOfRows][numberOfColumns];
+    for (int row = 0; row < clusterIds.length; row++) {
+      Arrays.fill(clusterIds[row], -1 - row);
+    }
+    for (int column = 0; column < numberOfColumns; column++) {
+      int clusterId = 0;
+      for (int[] cluster : this.partitions.get(column)) {
+        for (int row : cluster) {
+          clusterIds[row][column] = clusterId;
         }
+        clusterId++;
       }
-      column.getValue().left.clear();
     }
-    partitions.clear();
-    return strippedPartitions;
+    return clusterIds;
   }
 
-  public static List<ComparableOpenBitSet> CreateMaxSets(StrippedPartitions partitions) {
-    
-    Set<ComparableOpenBitSet> maxSets = new LinkedHashSet<ComparableOpenBitSet>();
-    for (LinkedList<ComparableOpenBitSet> partition : partitions.values()) {
-      for (LinkedList<ComparableOpenBitSet> partition2 : partitions.values()) {
-        if (partition == partition2) continue;
-        for (ComparableOpenBitSet partitionStrip : partition) {
-          for (ComparableOpenBitSet partitionStrip2 : partition2) {
-            if (Covers(partitionStrip, partitionStrip2) && partitionStrip2.cardinality() > partitionStrip.cardinality()) {
-              maxSets.remove(partitionStrip);
-              maxSets.add(partitionStrip2);
-            } else {
-              maxSets.add(partitionStrip);
-            }
-          }
+  /**
+   * Computes the maximal sets: the distinct clusters of all columns that are
+   * not contained in a cluster of another column. Clusters are visited by
+   * descending size, so a cluster can only be contained in a maximal set
+   * found before it; these are looked up via the maximal sets of the
+   * cluster's first row.
+   * @return the maximal sets, by descending size
+   */
+  public static List<int[]> CreateMaxSets(StrippedPartitions partitions) {
+    // distinct clusters of all columns
+    Set<Stripe> distinct = new LinkedHashSet<Stripe>();
+    for (List<int[]> partition : partitions.partitions) {
+      for (int[] cluster : partition) {
+        distinct.add(new Stripe(cluster));
+      }
+    }
+    List<int[]> clusters = new ArrayList<int[]>(distinct.size());
+    for (Stripe stripe : distinct) {
+      clusters.add(stripe.rows);
+    }
+    Collections.sort(clusters, new Comparator<int[]>() {
+      @Override
+      public int compare(int[] a, int[] b) {
+        return Integer.compare(b.length, a.length);
+      }
+    });
+
+    // maximal sets by row; only filled for rows of maximal sets
+    List<List<int[]>> maxSetsByRow = new ArrayList<List<int[]>>(partitions.numberOfRows);
+    for (int row = 0; row < partitions.numberOfRows; row++) {
+      maxSetsByRow.add(null);
+    }
+    List<int[]> maxSets = new ArrayList<int[]>();
+    for (int[] cluster : clusters) {
+      if (isContained(cluster, maxSetsByRow.get(cluster[0]))) {
+        continue;
+      }
+      maxSets.add(cluster);
+      for (int row : cluster) {
+        List<int[]> rowMaxSets = maxSetsByRow.get(row);
+        if (rowMaxSets == null) {
+          rowMaxSets = new ArrayList<int[]>(2);
+          maxSetsByRow.set(row, rowMaxSets);
         }
+        rowMaxSets.add(cluster);
       }
     }
-    return new LinkedList<ComparableOpenBitSet>(maxSets);
+    return maxSets;
+  }
+
+  private static boolean isContained(int[] cluster, List<int[]> candidates) {
+    if (candidates == null) {
+      return false;
+    }
+    for (int[] candidate : candidates) {
+      if (Covers(candidate, cluster)) {
+        return true;
+      }
+    }
+    return false;
   }
   
-  public static Boolean Covers(ComparableOpenBitSet lhs, ComparableOpenBitSet rhs)
+  /**
+   * @param lhs ascending row numbers
+   * @param rhs ascending row numbers
+   * @return true if all rows of rhs are in lhs
+   */
+  public static boolean Covers(int[] lhs, int[] rhs)
   {
-      ComparableOpenBitSet left = (ComparableOpenBitSet) lhs.clone();
-      ComparableOpenBitSet right = (ComparableOpenBitSet) rhs.clone();
-      right.and(left);
-      return right.equals(rhs);
+    if (rhs.length > lhs.length) return false;
+    int i = 0;
+    for (int row : rhs) {
+      while (i < lhs.length && lhs[i] < row) i++;
+      if (i == lhs.length || lhs[i] != row) return false;
+      i++;
+    }
+    return true;
+  }
+
+  // hashable wrapper for the deduplication of stripes
+  private static class Stripe {
+    private final int[] rows;
+
+    private Stripe(int[] rows) {
+      this.rows = rows;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(this.rows);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Stripe && Arrays.equals(this.rows, ((Stripe) obj).rows);
+    }
   }
 
 }
@@ -0,0 +1,307 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Level-wise FD discovery (TANE). Each level holds the column combinations
+ * of one size with their stripped partitions, the partitions of the next
+ * level are products of the partitions of this level. X\{A} -> A holds if
+ * the error e(X\{A}) equals e(X), where e is the number of rows minus the
+ * number of clusters, both counted without singletons. The right-hand side
+ * candidates C+ keep the FDs minimal and prune combinations that cannot
+ * yield new FDs, keys are pruned after their own FDs are reported.
+ * <p>
+ * With an error threshold above 0, the minimal approximate FDs are
+ * discovered instead: X -> A holds if removing at most this share of the
+ * rows makes it hold exactly (g3 error). Keys are not pruned then.
+ */
+public class Tane {
+
+  private final StrippedPartitions partitions;
+  private final int[][] clusterIds;
+  private final int numberOfColumns;
+  // number of rows an approximate FD may violate (g3 error times the number of rows)
+  private final long maxViolations;
+  // for counting the rows of each cluster of a column within a cluster of the left-hand side
+  private final int[] clusterSizes;
+  // for the product of two partitions: cluster index of each row in the first one, -1 if none
+  private final int[] clusterOfRow;
+
+  private static class Combination {
+    private final List<int[]> partition;
+    private final long error;
+    private BitSet cPlus;
+
+    private Combination(List<int[]> partition) {
+      this.partition = partition;
+      long error = 0;
+      for (int[] cluster : partition) {
+        error += cluster.length - 1;
+      }
+      this.error = error;
+    }
+  }
+
+  /**
+   * @param partitions the stripped partitions of the relation
+   * @param errorThreshold the g3 error allowed for approximate FDs, 0 = exact FDs
+   */
+  public Tane(StrippedPartitions partitions, double errorThreshold) {
+    this.partitions = partitions;
+    this.clusterIds = partitions.getClusterIdsByRow();
+    this.numberOfColumns = partitions.getNumberOfColumns();
+    this.maxViolations = (long) Math.floor(errorThreshold * partitions.getNumberOfRows());
+    int maxClusters = 0;
+    for (int column = 0; column < this.numberOfColumns; column++) {
+      maxClusters = Math.max(maxClusters, partitions.getPartition(column).size());
+    }
+    this.clusterSizes = new int[maxClusters];
+    this.clusterOfRow = new int[partitions.getNumberOfRows()];
+    Arrays.fill(this.clusterOfRow, -1);
+  }
+
+  public Set<ComparableFunctionalDependency> discover() {
+    Set<ComparableFunctionalDependency> result = new LinkedHashSet<ComparableFunctionalDependency>();
+
+    // level 0: the empty combination, all rows in one cluster
+    List<int[]> allRows = new ArrayList<int[]>();
+    if (this.partitions.getNumberOfRows() > 1) {
+      int[] rows = new int[this.partitions.getNumberOfRows()];
+      for (int row = 0; row < rows.length; row++) {
+        rows[row] = row;
+      }
+      allRows.add(rows);
+    }
+    Combination empty = new Combination(allRows);
+    empty.cPlus = new BitSet(this.numberOfColumns);
+    empty.cPlus.set(0, this.numberOfColumns);
+    Map<BitSet, Combination> previousLevel = new LinkedHashMap<BitSet, Combination>();
+    previousLevel.put(new BitSet(), empty);
+
+    Map<BitSet, Combination> level = new LinkedHashMap<BitSet, Combination>();
+    for (int column = 0; column < this.numberOfColumns; column++) {
+      BitSet combination = new BitSet(this.numberOfColumns);
+      combination.set(column);
+      level.put(combination, new Combination(this.partitions.getPartition(column)));
+    }
+
+    while (!level.isEmpty()) {
+      this.computeDependencies(level, previousLevel, result);
+      this.prune(level, previousLevel, result);
+      Map<BitSet, Combination> nextLevel = this.generateNextLevel(level);
+      previousLevel = level;
+      level = nextLevel;
+    }
+    return result;
+  }
+
+  private void computeDependencies(Map<BitSet, Combination> level, Map<BitSet, Combination> previousLevel,
+      Set<ComparableFunctionalDependency> result) {
+    for (Map.Entry<BitSet, Combination> entry : level.entrySet()) {
+      BitSet x = entry.getKey();
+      Combination combination = entry.getValue();
+      // C+(X) is the intersection of C+(X\{A}) for all A in X
+      combination.cPlus = new BitSet(this.numberOfColumns);
+      combination.cPlus.set(0, this.numberOfColumns);
+      for (int a = x.nextSetBit(0); a >= 0; a = x.nextSetBit(a + 1)) {
+        x.clear(a);
+        combination.cPlus.and(previousLevel.get(x).cPlus);
+        x.set(a);
+      }
+
+      BitSet candidates = (BitSet) x.clone();
+      candidates.and(combination.cPlus);
+      for (int a = candidates.nextSetBit(0); a >= 0; a = candidates.nextSetBit(a + 1)) {
+        x.clear(a);
+        Combination lhs = previousLevel.get(x);
+        boolean exact = lhs.error == combination.error;
+        if (exact || this.holdsApproximately(lhs, combination, a)) {
+          result.add(fd(x, a));
+          combination.cPlus.clear(a);
+          if (exact) {
+            // X is not minimal for the columns outside of it
+            combination.cPlus.and(x);
+          }
+        }
+        x.set(a);
+      }
+    }
+  }
+
+  private void prune(Map<BitSet, Combination> level, Map<BitSet, Combination> previousLevel,
+      Set<ComparableFunctionalDependency> result) {
+    List<BitSet> removed = new ArrayList<BitSet>();
+    for (Map.Entry<BitSet, Combination> entry : level.entrySet()) {
+      BitSet x = entry.getKey();
+      Combination combination = entry.getValue();
+      if (combination.cPlus.isEmpty()) {
+        removed.add(x);
+      } else if (combination.error == 0 && this.maxViolations == 0) {
+        // X is a key and determines everything; X -> A is minimal if no X\{B} determines A
+        // (approximate FDs need the supersets of keys: a key can be the right-hand side of one)
+        for (int a = combination.cPlus.nextSetBit(0); a >= 0; a = combination.cPlus.nextSetBit(a + 1)) {
+          if (x.get(a)) continue;
+          boolean minimal = true;
+          for (int b = x.nextSetBit(0); b >= 0 && minimal; b = x.nextSetBit(b + 1)) {
+            x.clear(b);
+            minimal = this.countViolations(previousLevel.get(x).partition, a) > 0;
+            x.set(b);
+          }
+          if (minimal) {
+            result.add(fd(x, a));
+          }
+        }
+        removed.add(x);
+      }
+    }
+    for (BitSet x : removed) {
+      level.remove(x);
+    }
+  }
+
+  /**
+   * Each cluster of X\{A} splits into k clusters of X (singletons included);
+   * at least k-1 of its rows and at most all but one have to be removed for
+   * X\{A} -> A to hold. Summed up, the violations are between the errors'
+   * difference and the error of X\{A}, so most candidates are decided
+   * without looking at rows.
+   */
+  private boolean holdsApproximately(Combination lhs, Combination combination, int column) {
+    if (this.maxViolations == 0 || lhs.error - combination.error > this.maxViolations) {
+      return false;
+    }
+    if (lhs.error <= this.maxViolations) {
+      return true;
+    }
+    return this.countViolations(lhs.partition, column) <= this.maxViolations;
+  }
+
+  /**
+   * Counts the rows to remove so that all rows of each cluster agree on the
+   * column: all but the most frequent value of the cluster. Stops as soon as
+   * more than the allowed violations are found.
+   */
+  private long countViolations(List<int[]> partition, int column) {
+    long violations = 0;
+    for (int[] cluster : partition) {
+      int maxSize = 1;
+      for (int row : cluster) {
+        int id = this.clusterIds[row][column];
+        if (id >= 0 && ++this.clusterSizes[id] > maxSize) {
+          maxSize = this.clusterSizes[id];
+        }
+      }
+      for (int row : cluster) {
+        int id = this.clusterIds[row][column];
+        if (id >= 0) this.clusterSizes[id] = 0;
+      }
+      violations += cluster.length - maxSize;
+      if (violations > this.maxViolations) break;
+    }
+    return violations;
+  }
+
+  /**
+   * Joins the combinations that differ only in their last column; the
+   * result is kept if all its subsets are on this level.
+   */
+  private Map<BitSet, Combination> generateNextLevel(Map<BitSet, Combination> level) {
+    Map<BitSet, List<BitSet>> blocks = new LinkedHashMap<BitSet, List<BitSet>>();
+    for (BitSet x : level.keySet()) {
+      BitSet prefix = (BitSet) x.clone();
+      prefix.clear(x.length() - 1);
+      List<BitSet> block = blocks.get(prefix);
+      if (block == null) {
+        block = new ArrayList<BitSet>();
+        blocks.put(prefix, block);
+      }
+      block.add(x);
+    }
+
+    Map<BitSet, Combination> nextLevel = new LinkedHashMap<BitSet, Combination>();
+    for (List<BitSet> block : blocks.values()) {
+      for (int i = 0; i < block.size(); i++) {
+        for (int j = i + 1; j < block.size(); j++) {
+          BitSet z = (BitSet) block.get(i).clone();
+          z.or(block.get(j));
+          if (!this.allSubsetsIn(z, level)) continue;
+          List<int[]> partition = this.product(level.get(block.get(i)).partition, level.get(block.get(j)).partition);
+          nextLevel.put(z, new Combination(partition));
+        }
+      }
+    }
+    return nextLevel;
+  }
+
+  private boolean allSubsetsIn(BitSet z, Map<BitSet, Combination> level) {
+    for (int column = z.nextSetBit(0); column >= 0; column = z.nextSetBit(column + 1)) {
+      z.clear(column);
+      boolean contained = level.containsKey(z);
+      z.set(column);
+      if (!contained) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return the stripped partition of the union of both combinations: rows
+   * that share a cluster in both partitions
+   */
+  private List<int[]> product(List<int[]> partition, List<int[]> otherPartition) {
+    for (int i = 0; i < partition.size(); i++) {
+      for (int row : partition.get(i)) {
+        this.clusterOfRow[row] = i;
+      }
+    }
+    List<int[]> result = new ArrayList<int[]>();
+    int[] counts = new int[partition.size()];
+    int[][] clusters = new int[partition.size()][];
+    int[] fill = new int[partition.size()];
+    for (int[] otherCluster : otherPartition) {
+      for (int row : otherCluster) {
+        int i = this.clusterOfRow[row];
+        if (i >= 0) counts[i]++;
+      }
+      // rows are added in ascending order, the clusters by their first row
+      for (int row : otherCluster) {
+        int i = this.clusterOfRow[row];
+        if (i < 0 || counts[i] < 2) continue;
+        if (clusters[i] == null) {
+          clusters[i] = new int[counts[i]];
+          result.add(clusters[i]);
+        }
+        clusters[i][fill[i]++] = row;
+      }
+      for (int row : otherCluster) {
+        int i = this.clusterOfRow[row];
+        if (i >= 0) {
+          counts[i] = 0;
+          clusters[i] = null;
+          fill[i] = 0;
+        }
+      }
+    }
+    for (int[] cluster : partition) {
+      for (int row : cluster) {
+        this.clusterOfRow[row] = -1;
+      }
+    }
+    return result;
+  }
+
+  private static ComparableFunctionalDependency fd(BitSet lhs, int rhs) {
+    Set<Integer> determinants = new LinkedHashSet<Integer>();
+    for (int column = lhs.nextSetBit(0); column >= 0; column = lhs.nextSetBit(column + 1)) {
+      determinants.add(column);
+    }
+    return new ComparableFunctionalDependency(determinants, rhs);
+  }
+
+}
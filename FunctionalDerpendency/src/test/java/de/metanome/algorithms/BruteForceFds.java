@@ -0,0 +1,72 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+/**
+ * Reference for the FD engines: checks every left-hand side of every
+ * attribute against all rows. Only for small tables.
+ */
+class BruteForceFds {
+
+  /**
+   * @return the minimal FDs of the remaining rows of the input, null == null
+   */
+  static Set<ComparableFunctionalDependency> discover(RelationalInput input) throws Exception {
+    int numberOfColumns = input.numberOfColumns();
+    List<List<String>> rows = new ArrayList<List<String>>();
+    while (input.hasNext()) {
+      rows.add(input.next());
+    }
+
+    Set<ComparableFunctionalDependency> result = new HashSet<ComparableFunctionalDependency>();
+    for (int attribute = 0; attribute < numberOfColumns; attribute++) {
+      for (int lhs = 0; lhs < 1 << numberOfColumns; lhs++) {
+        if ((lhs & 1 << attribute) != 0 || !holds(rows, lhs, attribute)) continue;
+        // validity is monotone, so it suffices to check the direct subsets
+        boolean minimal = true;
+        for (int column = 0; column < numberOfColumns && minimal; column++) {
+          minimal = (lhs & 1 << column) == 0 || !holds(rows, lhs & ~(1 << column), attribute);
+        }
+        if (minimal) {
+          result.add(new ComparableFunctionalDependency(columns(lhs, numberOfColumns), attribute));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean holds(List<List<String>> rows, int lhs, int attribute) {
+    Map<List<String>, String> values = new HashMap<List<String>, String>();
+    for (List<String> row : rows) {
+      List<String> key = new ArrayList<String>();
+      for (int column = 0; column < row.size(); column++) {
+        if ((lhs & 1 << column) != 0) key.add(row.get(column));
+      }
+      String value = row.get(attribute);
+      if (values.containsKey(key)) {
+        String other = values.get(key);
+        if (other == null ? value != null : !other.equals(value)) return false;
+      } else {
+        values.put(key, value);
+      }
+    }
+    return true;
+  }
+
+  private static Set<Integer> columns(int lhs, int numberOfColumns) {
+    Set<Integer> columns = new LinkedHashSet<Integer>();
+    for (int column = 0; column < numberOfColumns; column++) {
+      if ((lhs & 1 << column) != 0) columns.add(column);
+    }
+    return columns;
+  }
+
+}
@@ -0,0 +1,84 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+/**
+ * Comma separated test table: a header line followed by the rows.
+ */
+class CsvInput implements RelationalInput {
+
+  private final String name;
+  private final List<String> header;
+  private final List<List<String>> rows = new ArrayList<List<String>>();
+  private int next = 0;
+
+  CsvInput(String name, String... lines) {
+    this.name = name;
+    this.header = Arrays.asList(lines[0].split(",", -1));
+    for (int i = 1; i < lines.length; i++) {
+      this.rows.add(Arrays.asList(lines[i].split(",", -1)));
+    }
+  }
+
+  /**
+   * Reads a test file, skipping empty lines. Relative paths are resolved
+   * against the module directory.
+   */
+  static CsvInput fromFile(String path) throws IOException {
+    byte[] bytes = Files.readAllBytes(Paths.get(path));
+    List<String> lines = new ArrayList<String>();
+    for (String line : new String(bytes, "UTF-8").split("\r\n|\r|\n")) {
+      if (!line.isEmpty()) {
+        lines.add(line);
+      }
+    }
+    return new CsvInput(Paths.get(path).getFileName().toString(), lines.toArray(new String[lines.size()]));
+  }
+
+  /**
+   * @return a new input over the same rows, starting with the first one
+   */
+  CsvInput copy() {
+    CsvInput copy = new CsvInput(this.name, this.header);
+    copy.rows.addAll(this.rows);
+    return copy;
+  }
+
+  private CsvInput(String name, List<String> header) {
+    this.name = name;
+    this.header = header;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return this.next < this.rows.size();
+  }
+
+  @Override
+  public List<String> next() {
+    return this.hasNext() ? this.rows.get(this.next++) : null;
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return this.header.size();
+  }
+
+  @Override
+  public String relationName() {
+    return this.name;
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return this.header;
+  }
+
+}
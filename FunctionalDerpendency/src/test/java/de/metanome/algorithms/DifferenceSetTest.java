@@ -0,0 +1,36 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class DifferenceSetTest {
+
+  @Test
+  public void testGenerateDifferenceSets() {
+    Set<DifferenceSet> differenceSets = DifferenceSet.generateDifferenceSets(new CsvInput("abc",
+        "A,B,C",
+        "1,x,p",
+        "1,y,p",
+        "2,y,q"));
+
+    // agree sets: {A, C} for rows 0 and 1, {B} for rows 1 and 2, {} for rows 0 and 2
+    Set<DifferenceSet> expected = new HashSet<DifferenceSet>();
+    expected.add(differenceSet(1));
+    expected.add(differenceSet(0, 2));
+    expected.add(differenceSet(0, 1, 2));
+    assertEquals(expected, new HashSet<DifferenceSet>(differenceSets));
+  }
+
+  private static DifferenceSet differenceSet(int... columns) {
+    DifferenceSet differenceSet = new DifferenceSet(3);
+    for (int column : columns) {
+      differenceSet.add(column);
+    }
+    return differenceSet;
+  }
+
+}
@@ -0,0 +1,120 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FunctionalDerpendencyAlgorithmTest {
+
+  private static final String PLANETS = "../MetanomeTestRunner/data/planets/WDC_planets.csv";
+
+  @Test
+  public void testFastFdsMatchesBruteForce() throws Exception {
+    FunctionalDerpendencyAlgorithm algorithm = new FunctionalDerpendencyAlgorithm();
+    algorithm.engine = FunctionalDerpendencyAlgorithm.Engine.FASTFDS;
+
+    assertEquals(BruteForceFds.discover(CsvInput.fromFile(PLANETS)),
+        algorithm.discover(CsvInput.fromFile(PLANETS)));
+  }
+
+  @Test
+  public void testParallelFastFdsMatchesBruteForce() throws Exception {
+    FunctionalDerpendencyAlgorithm algorithm = new FunctionalDerpendencyAlgorithm();
+    algorithm.engine = FunctionalDerpendencyAlgorithm.Engine.FASTFDS;
+    algorithm.numberOfThreads = 4;
+
+    assertEquals(BruteForceFds.discover(CsvInput.fromFile(PLANETS)),
+        algorithm.discover(CsvInput.fromFile(PLANETS)));
+  }
+
+  @Test
+  public void testEnginesAgreeOnPlanets() throws Exception {
+    assertEnginesAgree(PLANETS);
+  }
+
+  @Test
+  public void testEnginesAgreeOnKeys() throws Exception {
+    // AB is a key: AB -> C is only found by the key pruning, AB -> D is not minimal (A -> D)
+    assertEnginesAgree(new CsvInput("keys",
+        "A,B,C,D",
+        "1,x,p,10",
+        "1,y,q,10",
+        "2,x,q,20",
+        "2,y,p,20",
+        "3,x,p,30"));
+  }
+
+  @Test
+  public void testEnginesAgreeOnRandomTables() throws Exception {
+    Random random = new Random(42);
+    for (int table = 0; table < 20; table++) {
+      int numberOfColumns = 3 + random.nextInt(5);
+      String[] lines = new String[1 + 4 + random.nextInt(20)];
+      StringBuilder header = new StringBuilder("C0");
+      for (int column = 1; column < numberOfColumns; column++) {
+        header.append(",C").append(column);
+      }
+      lines[0] = header.toString();
+      // small domains, so there are FDs and keys on several levels
+      int[] domains = new int[numberOfColumns];
+      for (int column = 0; column < numberOfColumns; column++) {
+        domains[column] = 1 + random.nextInt(5);
+      }
+      for (int row = 1; row < lines.length; row++) {
+        StringBuilder line = new StringBuilder();
+        for (int column = 0; column < numberOfColumns; column++) {
+          line.append(column == 0 ? "" : ",").append(random.nextInt(domains[column]));
+        }
+        lines[row] = line.toString();
+      }
+      assertEnginesAgree(new CsvInput("random" + table, lines));
+    }
+  }
+
+  @Test
+  public void testApproximateFdHoldsUpToItsError() throws Exception {
+    // A -> B is violated by row 4 only, i.e. its g3 error is 1/8; B -> A holds exactly
+    String[] lines = {
+        "A,B",
+        "1,x", "1,x", "1,x", "1,y",
+        "2,z", "2,z", "2,z", "2,z"};
+    ComparableFunctionalDependency aToB = new ComparableFunctionalDependency(Collections.singleton(0), 1);
+    ComparableFunctionalDependency bToA = new ComparableFunctionalDependency(Collections.singleton(1), 0);
+
+    FunctionalDerpendencyAlgorithm algorithm = new FunctionalDerpendencyAlgorithm();
+    algorithm.errorThreshold = 0.125;
+    assertEquals(new HashSet<ComparableFunctionalDependency>(Arrays.asList(aToB, bToA)),
+        algorithm.discover(new CsvInput("approximate", lines)));
+
+    algorithm.errorThreshold = 0.124;
+    assertEquals(Collections.singleton(bToA), algorithm.discover(new CsvInput("approximate", lines)));
+  }
+
+  private static void assertEnginesAgree(String path) throws Exception {
+    assertEnginesAgree(CsvInput.fromFile(path));
+  }
+
+  /**
+   * Runs every engine (HyFD also with a threshold that ends the sampling
+   * early) on the table and compares them with the brute-force reference.
+   */
+  private static void assertEnginesAgree(CsvInput table) throws Exception {
+    Set<ComparableFunctionalDependency> expected = BruteForceFds.discover(table.copy());
+    for (FunctionalDerpendencyAlgorithm.Engine engine : FunctionalDerpendencyAlgorithm.Engine.values()) {
+      FunctionalDerpendencyAlgorithm algorithm = new FunctionalDerpendencyAlgorithm();
+      algorithm.engine = engine;
+      assertEquals(engine + " on " + table.relationName(), expected, algorithm.discover(table.copy()));
+    }
+    FunctionalDerpendencyAlgorithm hyfd = new FunctionalDerpendencyAlgorithm();
+    hyfd.engine = FunctionalDerpendencyAlgorithm.Engine.HYFD;
+    hyfd.hyfdEfficiencyThreshold = 0.9;
+    assertEquals("HYFD (0.9) on " + table.relationName(), expected, hyfd.discover(table.copy()));
+  }
+
+}
@@ -0,0 +1,72 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+
+public class FunctionalDerpendencyTest {
+
+  @Test
+  public void testConfigurationRequirementsAreNotAccumulated() {
+    FunctionalDerpendency algorithm = new FunctionalDerpendency();
+    int size = algorithm.getConfigurationRequirements().size();
+
+    assertEquals(FunctionalDerpendency.Identifier.values().length, size);
+    assertEquals(size, algorithm.getConfigurationRequirements().size());
+  }
+
+  @Test
+  public void testSetStringConfigurationValues() throws Exception {
+    FunctionalDerpendency algorithm = new FunctionalDerpendency();
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ASYNC_RESULTS.name(), " TRUE ");
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.THREADS.name(), "4");
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ENGINE.name(), "hyfd");
+
+    assertTrue(algorithm.asyncResults);
+    assertEquals(4, algorithm.numberOfThreads);
+    assertEquals(FunctionalDerpendencyAlgorithm.Engine.HYFD, algorithm.engine);
+  }
+
+  @Test(expected = AlgorithmConfigurationException.class)
+  public void testUnknownIdentifierIsRejected() throws Exception {
+    new FunctionalDerpendency().setStringConfigurationValue("THREAD", "4");
+  }
+
+  @Test(expected = AlgorithmConfigurationException.class)
+  public void testUnparseableBooleanIsRejected() throws Exception {
+    new FunctionalDerpendency().setStringConfigurationValue(FunctionalDerpendency.Identifier.ASYNC_RESULTS.name(), "yes");
+  }
+
+  @Test(expected = AlgorithmConfigurationException.class)
+  public void testUnparseableNumberIsRejected() throws Exception {
+    new FunctionalDerpendency().setStringConfigurationValue(FunctionalDerpendency.Identifier.THREADS.name(), "four");
+  }
+
+  @Test
+  public void testErrorThresholdSelectsTane() throws Exception {
+    FunctionalDerpendency algorithm = new FunctionalDerpendency();
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ERROR_THRESHOLD.name(), "0.1");
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ENGINE.name(), "TANE");
+
+    assertEquals(0.1, algorithm.errorThreshold, 0);
+    assertEquals(FunctionalDerpendencyAlgorithm.Engine.TANE, algorithm.engine);
+  }
+
+  @Test(expected = AlgorithmConfigurationException.class)
+  public void testErrorThresholdRejectsExplicitEngine() throws Exception {
+    FunctionalDerpendency algorithm = new FunctionalDerpendency();
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ENGINE.name(), "FASTFDS");
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ERROR_THRESHOLD.name(), "0.1");
+  }
+
+  @Test(expected = AlgorithmConfigurationException.class)
+  public void testExplicitEngineRejectsErrorThreshold() throws Exception {
+    FunctionalDerpendency algorithm = new FunctionalDerpendency();
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ERROR_THRESHOLD.name(), "0.1");
+    algorithm.setStringConfigurationValue(FunctionalDerpendency.Identifier.ENGINE.name(), "HYFD");
+  }
+
+}
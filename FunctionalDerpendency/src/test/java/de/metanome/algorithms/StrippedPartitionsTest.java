@@ -0,0 +1,87 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StrippedPartitionsTest {
+
+  private StrippedPartitions partitions;
+
+  @Before
+  public void setUp() throws Exception {
+    this.partitions = StrippedPartitions.createStrippedPartitons(CsvInput.fromFile("../MetanomeTestRunner/data/planets/WDC_planets.csv"));
+  }
+
+  @Test
+  public void testCreateStrippedPartitions() {
+    assertEquals(10, this.partitions.getNumberOfColumns());
+    assertEquals(8, this.partitions.getNumberOfRows());
+    // Type: Terrestrial and Giant
+    assertEquals(2, this.partitions.getPartition(1).size());
+    assertTrue(Arrays.equals(new int[] {0, 1, 2, 3}, this.partitions.getPartition(1).get(0)));
+    assertTrue(Arrays.equals(new int[] {4, 5, 6, 7}, this.partitions.getPartition(1).get(1)));
+    // Name is unique
+    assertTrue(this.partitions.getPartition(0).isEmpty());
+  }
+
+  @Test
+  public void testAllDistinctColumnIsStripped() {
+    StrippedPartitions partitions = StrippedPartitions.createStrippedPartitons(new CsvInput("distinct",
+        "A,B",
+        "1,x",
+        "2,x",
+        "3,y"));
+
+    // A is a key, none of its clusters has two rows
+    assertTrue(partitions.getPartition(0).isEmpty());
+    assertEquals(1, partitions.getPartition(1).size());
+    assertTrue(Arrays.equals(new int[] {0, 1}, partitions.getPartition(1).get(0)));
+  }
+
+  @Test
+  public void testCreateMaxSets() {
+    List<int[]> maxSets = StrippedPartitions.CreateMaxSets(this.partitions);
+
+    assertEquals(2, maxSets.size());
+    assertTrue(Arrays.equals(new int[] {0, 1, 2, 3}, maxSets.get(0)));
+    assertTrue(Arrays.equals(new int[] {4, 5, 6, 7}, maxSets.get(1)));
+  }
+
+  @Test
+  public void testCreateMaxSetsOfNestedClusters() {
+    StrippedPartitions partitions = StrippedPartitions.createStrippedPartitons(new CsvInput("nested",
+        "A,B,C",
+        "1,x,p",
+        "1,x,p",
+        "1,y,p",
+        "1,y,q",
+        "2,z,q",
+        "2,z,r"));
+
+    // {0,1}, {2,3} and {0,1,2} lie within {0,1,2,3}; {4,5} occurs in A and B
+    assertEquals(toSet(new int[] {0, 1, 2, 3}, new int[] {3, 4}, new int[] {4, 5}),
+        toSet(StrippedPartitions.CreateMaxSets(partitions).toArray(new int[0][])));
+  }
+
+  private static Set<List<Integer>> toSet(int[]... clusters) {
+    Set<List<Integer>> set = new HashSet<List<Integer>>();
+    for (int[] cluster : clusters) {
+      List<Integer> rows = new ArrayList<Integer>(cluster.length);
+      for (int row : cluster) {
+        rows.add(row);
+      }
+      set.add(rows);
+    }
+    return set;
+  }
+
+}
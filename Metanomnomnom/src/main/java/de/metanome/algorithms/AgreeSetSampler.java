@@ -0,0 +1,165 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
+
+/**
+ * Finds duplicate value tuples in a sample of rows to prove column
+ * combinations non-unique without intersecting their PLIs. Two sampled rows
+ * agree on a set of columns (their agree set); every column combination that
+ * is a subset of an agree set is non-unique. Only the maximal agree sets are
+ * kept.
+ */
+public class AgreeSetSampler {
+
+	private final int numberOfWords;
+	// maximal agree sets, one bit per column
+	private final List<long[]> agreeSets = new ArrayList<long[]>();
+
+	/**
+	 * Samples every n-th row so that at most sampleSize rows are compared.
+	 * @param columnStore the dictionary-encoded relation
+	 * @param sampleSize the maximum number of sampled rows
+	 */
+	public AgreeSetSampler(ColumnStore columnStore, int sampleSize) {
+		int numberOfColumns = columnStore.getNumberOfColumns();
+		this.numberOfWords = (numberOfColumns + 63) / 64;
+
+		int numberOfRows = columnStore.getNumberOfRows();
+		if (sampleSize < 2 || numberOfRows < 2) {
+			return;
+		}
+		int step = Math.max(1, (numberOfRows + sampleSize - 1) / sampleSize);
+		int sampledRows = (numberOfRows + step - 1) / step;
+
+		// value ids of the sampled rows per column, ColumnStore.NULL_ID = null
+		int[][] valueIds = new int[numberOfColumns][sampledRows];
+		for (int column = 0; column < numberOfColumns; column++) {
+			int[] columnValueIds = columnStore.getValueIds(column);
+			for (int sample = 0; sample < sampledRows; sample++) {
+				valueIds[column][sample] = columnValueIds[sample * step];
+			}
+		}
+
+		// compare sampled rows that share a value in at least one column
+		Set<AgreeSet> distinctAgreeSets = new HashSet<AgreeSet>();
+		long[] keys = new long[sampledRows];
+		for (int column = 0; column < numberOfColumns; column++) {
+			// sort sampled rows by their value id, rows with the same value become neighbours
+			int numberOfKeys = 0;
+			for (int sample = 0; sample < sampledRows; sample++) {
+				if (valueIds[column][sample] != ColumnStore.NULL_ID) {
+					keys[numberOfKeys++] = ((long) valueIds[column][sample] << 32) | sample;
+				}
+			}
+			Arrays.sort(keys, 0, numberOfKeys);
+			for (int i = 1; i < numberOfKeys; i++) {
+				if ((keys[i - 1] >>> 32) == (keys[i] >>> 32)) {
+					distinctAgreeSets.add(new AgreeSet(this.agreeSet(valueIds, (int) keys[i - 1], (int) keys[i])));
+				}
+			}
+		}
+
+		// keep maximal agree sets only
+		List<long[]> bySize = new ArrayList<long[]>(distinctAgreeSets.size());
+		for (AgreeSet agreeSet : distinctAgreeSets) {
+			bySize.add(agreeSet.bits);
+		}
+		sortByCardinalityDescending(bySize);
+		for (long[] agreeSet : bySize) {
+			if (!this.isCovered(agreeSet)) {
+				this.agreeSets.add(agreeSet);
+			}
+		}
+	}
+
+	/**
+	 * @param columnCombination the column combination to check
+	 * @return true if two sampled rows share the same values in all columns
+	 * 	of the column combination, i.e. it is certainly not unique
+	 */
+	public boolean isNonUnique(ColumnCombinationBitset columnCombination) {
+		if (this.agreeSets.isEmpty()) {
+			return false;
+		}
+		long[] bits = new long[this.numberOfWords];
+		for (Integer column : columnCombination.getSetBits()) {
+			bits[column >>> 6] |= 1L << column;
+		}
+		return this.isCovered(bits);
+	}
+
+	/**
+	 * @return the number of maximal agree sets found in the sample
+	 */
+	public int getNumberOfAgreeSets() {
+		return this.agreeSets.size();
+	}
+
+	private long[] agreeSet(int[][] valueIds, int firstSample, int secondSample) {
+		long[] bits = new long[this.numberOfWords];
+		for (int column = 0; column < valueIds.length; column++) {
+			int valueId = valueIds[column][firstSample];
+			if (valueId != ColumnStore.NULL_ID && valueId == valueIds[column][secondSample]) {
+				bits[column >>> 6] |= 1L << column;
+			}
+		}
+		return bits;
+	}
+
+	private boolean isCovered(long[] bits) {
+		agreeSets: for (long[] agreeSet : this.agreeSets) {
+			for (int word = 0; word < bits.length; word++) {
+				if ((bits[word] & ~agreeSet[word]) != 0) {
+					continue agreeSets;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static void sortByCardinalityDescending(List<long[]> bitsets) {
+		Collections.sort(bitsets, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] a, long[] b) {
+				return Integer.compare(cardinality(b), cardinality(a));
+			}
+		});
+	}
+
+	private static int cardinality(long[] bits) {
+		int cardinality = 0;
+		for (long word : bits) {
+			cardinality += Long.bitCount(word);
+		}
+		return cardinality;
+	}
+
+	// hashable wrapper for the deduplication of agree sets
+	private static class AgreeSet {
+		private final long[] bits;
+
+		private AgreeSet(long[] bits) {
+			this.bits = bits;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.bits);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof AgreeSet && Arrays.equals(this.bits, ((AgreeSet) obj).bits);
+		}
+	}
+
+}
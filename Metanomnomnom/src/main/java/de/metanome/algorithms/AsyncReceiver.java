@@ -0,0 +1,157 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+
+/**
+ * Forwards results to another receiver on a separate writer thread, so the
+ * search does not wait for the receiver's I/O. Results are passed on in
+ * batches through a bounded queue (the search blocks only if the writer
+ * falls behind by more than the queue capacity) and keep their order.
+ * {@link #close()} must be called to forward the last batch; it also
+ * reports any failure of the wrapped receiver. Subclasses implement the
+ * result receiver interface of their result type on top of
+ * {@link #receive(Object)} and pass each result on in {@link #forward(Object)}.
+ * @param <T> the type of the results
+ */
+public abstract class AsyncReceiver<T> {
+
+	private static final int BATCH_SIZE = 256;
+	private static final int QUEUE_CAPACITY = 64;
+
+	private final BlockingQueue<List<T>> queue = new ArrayBlockingQueue<List<T>>(QUEUE_CAPACITY);
+	private final Thread writer;
+	private List<T> batch = new ArrayList<T>(BATCH_SIZE);
+	private volatile CouldNotReceiveResultException failure = null;
+	private boolean closed = false;
+
+	/**
+	 * Starts the writer thread.
+	 * @param name the name of the writer thread
+	 */
+	protected AsyncReceiver(String name) {
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				write();
+			}
+		}, name);
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Passes a result on to the wrapped receiver, called by the writer thread.
+	 * @param result the result
+	 * @throws CouldNotReceiveResultException if the wrapped receiver failed
+	 */
+	protected abstract void forward(T result) throws CouldNotReceiveResultException;
+
+	/**
+	 * Queues a result for the writer thread.
+	 * @param result the result
+	 * @throws CouldNotReceiveResultException if the receiver has been closed
+	 * 	or the wrapped receiver failed
+	 */
+	protected synchronized void receive(T result) throws CouldNotReceiveResultException {
+		if (this.closed) {
+			throw new CouldNotReceiveResultException("Result receiver has already been closed");
+		}
+		this.checkFailure();
+		this.batch.add(result);
+		if (this.batch.size() >= BATCH_SIZE) {
+			this.enqueue(this.batch);
+			this.batch = new ArrayList<T>(BATCH_SIZE);
+		}
+	}
+
+	/**
+	 * Forwards the remaining results and waits for the writer thread to
+	 * finish. If this fails, the writer thread is stopped anyway.
+	 * @throws CouldNotReceiveResultException if the wrapped receiver failed
+	 */
+	public synchronized void close() throws CouldNotReceiveResultException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			if (!this.batch.isEmpty()) {
+				this.enqueue(this.batch);
+			}
+			// an empty batch ends the writer thread
+			this.enqueue(new ArrayList<T>(0));
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CouldNotReceiveResultException("Interrupted while writing results");
+		} finally {
+			// closed only now, so a failed close does not leave the writer waiting for the end marker
+			this.closed = true;
+			this.batch = null;
+			if (this.writer.isAlive()) {
+				this.writer.interrupt();
+			}
+		}
+		this.checkFailure();
+	}
+
+	/**
+	 * Closes the receiver after the search failed. Failures of the wrapped
+	 * receiver are ignored, the search's exception is the one to report.
+	 */
+	public void closeQuietly() {
+		try {
+			this.close();
+		} catch (CouldNotReceiveResultException e) {
+			// execution failed already, that exception is reported
+		}
+	}
+
+	private void enqueue(List<T> results) throws CouldNotReceiveResultException {
+		try {
+			this.queue.put(results);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CouldNotReceiveResultException("Interrupted while writing results");
+		}
+	}
+
+	private void checkFailure() throws CouldNotReceiveResultException {
+		if (this.failure != null) {
+			throw this.failure;
+		}
+	}
+
+	private void write() {
+		try {
+			while (true) {
+				List<T> results = this.queue.take();
+				if (results.isEmpty()) {
+					return;
+				}
+				if (this.failure != null) {
+					continue;			// keep draining, so the search never blocks
+				}
+				try {
+					for (T result : results) {
+						this.forward(result);
+					}
+				} catch (CouldNotReceiveResultException e) {
+					this.failure = e;
+				} catch (RuntimeException e) {
+					CouldNotReceiveResultException failure = new CouldNotReceiveResultException(
+							"Could not receive result: " + e.getMessage());
+					failure.initCause(e);
+					this.failure = failure;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package de.metanome.algorithms;
+
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.result_receiver.UniqueColumnCombinationResultReceiver;
+import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+
+/**
+ * Forwards unique column combinations to another receiver on a separate writer thread, see
+ * {@link AsyncReceiver}.
+ */
+public class AsyncUniqueColumnCombinationReceiver extends AsyncReceiver<UniqueColumnCombination>
+		implements UniqueColumnCombinationResultReceiver {
+
+	private final UniqueColumnCombinationResultReceiver receiver;
+
+	/**
+	 * Starts the writer thread.
+	 * @param receiver the receiver to forward the results to
+	 */
+	public AsyncUniqueColumnCombinationReceiver(UniqueColumnCombinationResultReceiver receiver) {
+		super("Metanomnomnom result writer");
+		this.receiver = receiver;
+	}
+
+	@Override
+	public void receiveResult(UniqueColumnCombination result) throws CouldNotReceiveResultException {
+		this.receive(result);
+	}
+
+	@Override
+	protected void forward(UniqueColumnCombination result) throws CouldNotReceiveResultException {
+		this.receiver.receiveResult(result);
+	}
+
+}
@@ -0,0 +1,75 @@
+package de.metanome.algorithms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Reads the clusters of a PLI one at a time into a reused row buffer. Spilled
+ * PLIs are read through a cursor straight from their memory-mapped files, so
+ * they are never decoded into a {@link PositionListIndex} on the heap.
+ */
+public abstract class ClusterCursor implements Closeable {
+
+	protected int[] rows = new int[16];
+	protected int size = 0;
+
+	/**
+	 * Moves to the next cluster.
+	 * @return false if there are no more clusters
+	 * @throws IOException if the cluster cannot be read
+	 */
+	public abstract boolean next() throws IOException;
+
+	/**
+	 * @return the number of rows of the current cluster
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return the ascending row numbers of the current cluster in the first
+	 * 	{@link #size()} entries; the array is reused for the next cluster
+	 */
+	public int[] rows() {
+		return this.rows;
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity > this.rows.length) {
+			this.rows = new int[Math.max(capacity, this.rows.length * 2)];
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+	}
+
+	/**
+	 * @param pli a PLI on the heap
+	 * @return a cursor over the clusters of the PLI
+	 */
+	public static ClusterCursor of(PositionListIndex pli) {
+		final Iterator<LongArrayList> clusters = pli.getClusters().iterator();
+		return new ClusterCursor() {
+			@Override
+			public boolean next() {
+				if (!clusters.hasNext()) {
+					return false;
+				}
+				LongArrayList cluster = clusters.next();
+				this.ensureCapacity(cluster.size());
+				for (int i = 0; i < cluster.size(); i++) {
+					this.rows[i] = (int) cluster.getLong(i);
+				}
+				this.size = cluster.size();
+				return true;
+			}
+		};
+	}
+
+}
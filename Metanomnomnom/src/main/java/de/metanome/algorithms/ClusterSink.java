@@ -0,0 +1,19 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+
+/**
+ * Receives the clusters of a PLI one at a time, the counterpart of
+ * {@link ClusterCursor}.
+ */
+public interface ClusterSink {
+
+	/**
+	 * @param rows ascending row numbers in the first size entries; the caller
+	 * 	may reuse the array after the call
+	 * @param size the number of rows of the cluster
+	 * @throws IOException if the cluster cannot be written
+	 */
+	void add(int[] rows, int size) throws IOException;
+
+}
@@ -0,0 +1,180 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_integration.AlgorithmExecutionException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * In-memory, column-oriented copy of a relation. Each column is dictionary
+ * encoded in a single streaming pass: every distinct value gets a dense id
+ * (in order of first appearance) and the column is stored as an int array of
+ * these ids. The dictionaries are dropped after reading, so PLIs, probing
+ * tables and samples are derived from the ids without hashing any string
+ * again. Nulls are encoded as {@link #NULL_ID} and never equal each other.
+ */
+public class ColumnStore {
+
+	public static final int NULL_ID = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+	// largest array size the VMs reliably allocate
+	private static final int MAXIMUM_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private final int[][] valueIds;
+	private final int[] numberOfDistinctValues;
+	private final int[] numberOfNulls;
+	private final int numberOfRows;
+
+	/**
+	 * Reads all remaining rows of the input.
+	 * @param input the input, positioned at the first data row
+	 * @throws AlgorithmExecutionException if the input cannot be read, a row
+	 * 	has more values than the input has columns or the input has more rows
+	 * 	than an array can hold
+	 */
+	public ColumnStore(RelationalInput input) throws AlgorithmExecutionException {
+		int numberOfColumns = input.numberOfColumns();
+
+		List<Map<String, Integer>> dictionaries = new ArrayList<Map<String, Integer>>(numberOfColumns);
+		int[][] columns = new int[numberOfColumns][INITIAL_CAPACITY];
+		for (int column = 0; column < numberOfColumns; column++) {
+			dictionaries.add(new HashMap<String, Integer>());
+		}
+
+		int[] nulls = new int[numberOfColumns];
+		int row = 0;
+		int capacity = INITIAL_CAPACITY;
+		while (input.hasNext()) {
+			List<String> values = input.next();
+			if (values.size() > numberOfColumns) {
+				throw new AlgorithmExecutionException(
+						"unexpected row size: " + values.size() + " > " + numberOfColumns);
+			}
+			if (row == capacity) {
+				if (capacity == MAXIMUM_CAPACITY) {
+					throw new AlgorithmExecutionException("too many rows: more than " + MAXIMUM_CAPACITY);
+				}
+				capacity = (int) Math.min(MAXIMUM_CAPACITY, 2L * capacity);
+				for (int column = 0; column < numberOfColumns; column++) {
+					columns[column] = Arrays.copyOf(columns[column], capacity);
+				}
+			}
+			for (int column = 0; column < numberOfColumns; column++) {
+				String value = column < values.size() ? values.get(column) : null;
+				if (value == null) {
+					columns[column][row] = NULL_ID;
+					nulls[column]++;
+				} else {
+					columns[column][row] = encode(dictionaries.get(column), value);
+				}
+			}
+			row++;
+		}
+
+		this.numberOfRows = row;
+		this.valueIds = new int[numberOfColumns][];
+		this.numberOfDistinctValues = new int[numberOfColumns];
+		this.numberOfNulls = nulls;
+		for (int column = 0; column < numberOfColumns; column++) {
+			this.valueIds[column] = Arrays.copyOf(columns[column], row);
+			this.numberOfDistinctValues[column] = dictionaries.get(column).size();
+			columns[column] = null;
+		}
+	}
+
+	private static int encode(Map<String, Integer> dictionary, String value) {
+		Integer id = dictionary.get(value);
+		if (id == null) {
+			id = dictionary.size();
+			dictionary.put(value, id);
+		}
+		return id;
+	}
+
+	public int getNumberOfColumns() {
+		return this.valueIds.length;
+	}
+
+	public int getNumberOfRows() {
+		return this.numberOfRows;
+	}
+
+	/**
+	 * @param column the column index
+	 * @return the value id of each row, {@link #NULL_ID} for nulls; must not be modified
+	 */
+	public int[] getValueIds(int column) {
+		return this.valueIds[column];
+	}
+
+	/**
+	 * @param column the column index
+	 * @return the number of distinct non-null values of the column
+	 */
+	public int getNumberOfDistinctValues(int column) {
+		return this.numberOfDistinctValues[column];
+	}
+
+	/**
+	 * @param column the column index
+	 * @return true if no two rows share a non-null value in the column (null != null)
+	 */
+	public boolean isUnique(int column) {
+		return this.numberOfDistinctValues[column] == this.numberOfRows - this.numberOfNulls[column];
+	}
+
+	/**
+	 * Builds the PLI of a single column by counting sort over the value ids.
+	 * Values that occur only once and nulls (null != null) are stripped.
+	 * @param column the column index
+	 * @return the PLI of the column
+	 */
+	public PositionListIndex buildPLI(int column) {
+		int[] ids = this.valueIds[column];
+		int[] counts = new int[this.numberOfDistinctValues[column]];
+		for (int id : ids) {
+			if (id != NULL_ID) {
+				counts[id]++;
+			}
+		}
+
+		LongArrayList[] clusters = new LongArrayList[counts.length];
+		for (int row = 0; row < ids.length; row++) {
+			int id = ids[row];
+			if (id == NULL_ID || counts[id] < 2) {
+				continue;
+			}
+			if (clusters[id] == null) {
+				clusters[id] = new LongArrayList(counts[id]);
+			}
+			clusters[id].add(row);
+		}
+
+		List<LongArrayList> clusterList = new ArrayList<LongArrayList>();
+		for (LongArrayList cluster : clusters) {
+			if (cluster != null) {
+				clusterList.add(cluster);
+			}
+		}
+		return new PositionListIndex(clusterList);
+	}
+
+	/**
+	 * @return the PLIs of all columns, in column order
+	 */
+	public List<PositionListIndex> buildPLIs() {
+		List<PositionListIndex> pliList = new ArrayList<PositionListIndex>(this.valueIds.length);
+		for (int column = 0; column < this.valueIds.length; column++) {
+			pliList.add(this.buildPLI(column));
+		}
+		return pliList;
+	}
+
+}
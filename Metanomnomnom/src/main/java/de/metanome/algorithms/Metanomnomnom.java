@@ -5,16 +5,18 @@ import java.util.ArrayList;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
 import de.metanome.algorithm_integration.algorithm_types.RelationalInputParameterAlgorithm;
+import de.metanome.algorithm_integration.algorithm_types.StringParameterAlgorithm;
 import de.metanome.algorithm_integration.algorithm_types.UniqueColumnCombinationsAlgorithm;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirementRelationalInput;
+import de.metanome.algorithm_integration.configuration.ConfigurationRequirementString;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.result_receiver.UniqueColumnCombinationResultReceiver;
 
-public class Metanomnomnom extends MetanomnomnomAlgorithm implements UniqueColumnCombinationsAlgorithm, RelationalInputParameterAlgorithm {
+public class Metanomnomnom extends MetanomnomnomAlgorithm implements UniqueColumnCombinationsAlgorithm, RelationalInputParameterAlgorithm, StringParameterAlgorithm {
 
 	public enum Identifier {
-		INPUT_GENERATOR
+		INPUT_GENERATOR, THREADS, SAMPLE_SIZE, SPILL_PLIS, ASYNC_RESULTS
 	};
 	
 	@Override
@@ -22,6 +24,10 @@ public class Metanomnomnom extends MetanomnomnomAlgorithm implements UniqueColum
 		ArrayList<ConfigurationRequirement> conf = new ArrayList<>();
 		conf.add(new ConfigurationRequirementRelationalInput(Metanomnomnom.Identifier.INPUT_GENERATOR.name()));
 		//conf.add(new ConfigurationRequirementRelationalInput(MyUcc.Identifier.INPUT_GENERATOR.name(), ConfigurationRequirement.ARBITRARY_NUMBER_OF_VALUES)); // For IND discovery, the number of inputs is arbitrary
+		conf.add(new ConfigurationRequirementString(Metanomnomnom.Identifier.THREADS.name()));			// number of threads checking candidates, 1 = sequential
+		conf.add(new ConfigurationRequirementString(Metanomnomnom.Identifier.SAMPLE_SIZE.name()));		// number of sampled rows, 0 = no sampling
+		conf.add(new ConfigurationRequirementString(Metanomnomnom.Identifier.SPILL_PLIS.name()));		// true = spill PLIs to memory-mapped files
+		conf.add(new ConfigurationRequirementString(Metanomnomnom.Identifier.ASYNC_RESULTS.name()));	// true = pass results to the receiver in batches on a writer thread
 		return conf;
 	}
 
@@ -37,6 +43,43 @@ public class Metanomnomnom extends MetanomnomnomAlgorithm implements UniqueColum
 		this.inputGenerator = values[0];
 	}
 
+	@Override
+	public void setStringConfigurationValue(String identifier, String... values) throws AlgorithmConfigurationException {
+		if (Metanomnomnom.Identifier.THREADS.name().equals(identifier)) {
+			this.numberOfThreads = parseInt(identifier, 1, values);
+		} else if (Metanomnomnom.Identifier.SAMPLE_SIZE.name().equals(identifier)) {
+			this.sampleSize = parseInt(identifier, 0, values);
+		} else if (Metanomnomnom.Identifier.SPILL_PLIS.name().equals(identifier)) {
+			this.spillPLIs = parseBoolean(identifier, values);
+		} else if (Metanomnomnom.Identifier.ASYNC_RESULTS.name().equals(identifier)) {
+			this.asyncResults = parseBoolean(identifier, values);
+		} else {
+			throw new AlgorithmConfigurationException("Unknown configuration identifier: " + identifier);
+		}
+	}
+
+	private static boolean parseBoolean(String identifier, String... values) throws AlgorithmConfigurationException {
+		if (values.length > 0) {
+			String value = values[0].trim();
+			if ("true".equalsIgnoreCase(value))
+				return true;
+			if ("false".equalsIgnoreCase(value))
+				return false;
+		}
+		throw new AlgorithmConfigurationException("Expected true or false for " + identifier);
+	}
+
+	private static int parseInt(String identifier, int minimum, String... values) throws AlgorithmConfigurationException {
+		try {
+			int value = Integer.parseInt(values[0].trim());
+			if (value >= minimum)
+				return value;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			// handled below
+		}
+		throw new AlgorithmConfigurationException("Expected a number >= " + minimum + " for " + identifier);
+	}
+
 	@Override
 	public void execute() throws AlgorithmExecutionException {
 		super.execute();
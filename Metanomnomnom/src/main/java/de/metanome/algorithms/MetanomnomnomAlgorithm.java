@@ -16,16 +16,18 @@
 
 package de.metanome.algorithms;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
-import de.metanome.algorithm_helper.data_structures.PLIBuilder;
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
 import de.metanome.algorithm_integration.ColumnIdentifier;
@@ -33,19 +35,44 @@ import de.metanome.algorithm_integration.input.RelationalInput;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.result_receiver.UniqueColumnCombinationResultReceiver;
 import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 public class MetanomnomnomAlgorithm {
 	
 	protected RelationalInputGenerator inputGenerator = null;
 	protected UniqueColumnCombinationResultReceiver resultReceiver = null;
+	// number of threads that check the candidates of a lattice level
+	protected int numberOfThreads = 1;
+	// number of rows sampled to prove candidates non-unique without PLIs, 0 = no sampling
+	protected int sampleSize = 1000;
+	// if set to true, PLIs that do not fit on the heap are spilled to memory-mapped files
+	protected boolean spillPLIs = false;
+	// estimated number of bytes the cached PLIs may occupy on the heap, 0 = a quarter of the maximum heap
+	protected long pliCacheSize = 0;
+	// if set to true, results are passed to the result receiver in batches by a separate thread
+	protected boolean asyncResults = false;
+	
+	// encoded relation, PLIs of the single columns (null if spilling), cache
+	// of intersected PLIs and their spill tier (null if not spilling), only
+	// set during execution
+	private ColumnStore columnStore = null;
+	private List<PositionListIndex> pliList = null;
+	private PLICache pliCache = null;
+	private PLISpillStore spillStore = null;
+	// agree sets of sampled rows and probing tables, only set during execution
+	private AgreeSetSampler sampler = null;
+	private UniquenessProbe probe = null;
 	
 	public void execute() throws AlgorithmExecutionException {
 		/*
 		 * Simple Algorithm
 		 * - read column names
-		 * - read all data rows, build complete position list index
-		 * - build complete tree of all column combinations
-		 * - check column combinations until all minimal UCCs are found;
+		 * - read all data rows into dictionary-encoded columns, build complete
+		 *   position list index from them
+		 * - traverse the lattice of column combinations level by level,
+		 *   starting with single columns
+		 * - generate the candidates of the next level from the non-unique
+		 *   column combinations of the current level (apriori-gen);
 		 *   use found UCCs for pruning (if a CC contains a UCC, skip it)
 		 */
 
@@ -61,80 +88,338 @@ public class MetanomnomnomAlgorithm {
 		List<String> columnNames = input.next();
 		// assign numbers to columns, store their names accordingly
 		Map<Integer, String> columns = new TreeMap<Integer, String>();
+		// identifiers for the results, created once per column
+		ColumnIdentifier[] identifiers = new ColumnIdentifier[columnNames.size()];
 		for (int i = 0; i < columnNames.size(); i++) {
 			columns.put(i, columnNames.get(i));
+			identifiers[i] = new ColumnIdentifier(tableName, columnNames.get(i));
+		}
+		
+		// read all data rows into dictionary-encoded columns (single pass)
+		this.columnStore = new ColumnStore(input);
+		
+		// PLIs of non-unique CCs that are parents of the next level's candidates;
+		// if spilling, evicted PLIs go to disk instead of being dropped
+		if (this.spillPLIs) {
+			try {
+				this.spillStore = new PLISpillStore();
+			} catch (IOException e) {
+				throw new AlgorithmExecutionException("Could not create PLI spill directory", e);
+			}
 		}
+		this.pliCache = this.pliCacheSize > 0
+				? new PLICache(this.pliCacheSize, this.spillStore)
+				: new PLICache(this.spillStore);
 		
-		// create Position List Index, null != null
-		PLIBuilder pliBuilder = new PLIBuilder(input, false);
-		List<PositionListIndex> pliList = pliBuilder.getPLIList();
+		// create Position List Index from the value ids, null != null;
+		// if spilling, single column PLIs are built on demand and cached like all others
+		this.pliList = this.spillPLIs ? null : this.columnStore.buildPLIs();
+		
+		// find duplicates in a row sample, candidates covered by them are non-unique
+		this.sampler = new AgreeSetSampler(this.columnStore, this.sampleSize);
+		
+		// the value ids serve as probing tables for the early-abort uniqueness checks
+		this.probe = new UniquenessProbe(this.columnStore);
 		
 		/*
 		 * check column combinations
 		 */
 		
-		// prepare list of UCCs
-		List<List<Integer>> uccs = new ArrayList<List<Integer>>();
+		// prepare index of (minimal) UCCs
+		UCCPrefixTree uccs = new UCCPrefixTree(columns.size());
 		
-		// get set of all column sets
-		ColumnCombinationBitset topCC = new ColumnCombinationBitset(new ArrayList<Integer>(columns.keySet()));
-		int topCCSize = columns.size();
-		List<ColumnCombinationBitset> allCCs = topCC.getAllSubsets();	// lists CCs from top to bottom
-		Collections.reverse(allCCs);									// list from bottom to top
-		allCCs.remove(new ColumnCombinationBitset());					// remove empty set
+		// first level: single columns (sorted by column index)
+		List<ColumnCombinationBitset> currentLevel = new ArrayList<ColumnCombinationBitset>();
+		for (Integer columnIndex : columns.keySet()) {
+			currentLevel.add(new ColumnCombinationBitset(columnIndex));
+		}
 		
-		// check column sets from bottom to top (skip empty column set)
-		outer: while (allCCs.size() > 0) {
-			// get columns
-			List<Integer> columnList = allCCs.get(0).getSetBits();
-			
-			// check if CC is a superset of any known UCC (need only minimal UCCs)
-			for (List<Integer> ucc : uccs) {
-				if (columnList.containsAll(ucc)) {
-					// skip to next CC
-					allCCs.remove(allCCs.get(0));
-					continue outer;
+		// candidates of one level are independent => check them in parallel if requested
+		ExecutorService executor = this.numberOfThreads > 1 ? Executors.newFixedThreadPool(this.numberOfThreads) : null;
+		// results are passed on by a writer thread if requested, so the search does not wait for the receiver
+		AsyncUniqueColumnCombinationReceiver asyncReceiver = this.asyncResults
+				? new AsyncUniqueColumnCombinationReceiver(this.resultReceiver)
+				: null;
+		UniqueColumnCombinationResultReceiver receiver = asyncReceiver != null ? asyncReceiver : this.resultReceiver;
+		try {
+			// check column sets from bottom to top, one level at a time
+			for (int level = 1; !currentLevel.isEmpty(); level++) {
+				// check if CC is a superset of any known UCC (need only minimal UCCs);
+				// UCCs of the current level cannot be contained in CCs of the same size
+				List<ColumnCombinationBitset> candidates = new ArrayList<ColumnCombinationBitset>(currentLevel.size());
+				for (ColumnCombinationBitset candidate : currentLevel) {
+					if (!uccs.containsSubsetOf(candidate)) {
+						candidates.add(candidate);
+					}
 				}
-			}
-			
-			// create intersection of the PLIs
-			PositionListIndex pli = null;
-			for (Integer columnIndex : columnList) {
-				pli = pli == null ? pliList.get(columnIndex) : pli.intersect(pliList.get(columnIndex));
-			}
-			
-			// check uniqueness
-			if (pli.isUnique()) {
 				
-				// remove candidates
-				int superSetSize = columnList.size();
-				ColumnCombinationBitset uccBitset = new ColumnCombinationBitset(columnList);
-				Set<ColumnCombinationBitset> sets = new HashSet<ColumnCombinationBitset>();
-				Set<ColumnCombinationBitset> temp = new HashSet<ColumnCombinationBitset>();
-				sets.add(uccBitset);
-				do {
-					superSetSize++;
-					for (ColumnCombinationBitset bitset : sets) {
-						List<ColumnCombinationBitset> superSets = bitset.getDirectSupersets(topCC);
-						temp.addAll(superSets);
-						allCCs.removeAll(superSets);
+				// check uniqueness
+				boolean[] unique = this.checkCandidates(candidates, executor);
+				
+				// evaluate in candidate order, keeps the output deterministic
+				List<ColumnCombinationBitset> nonUniques = new ArrayList<ColumnCombinationBitset>();
+				for (int i = 0; i < candidates.size(); i++) {
+					if (!unique[i]) {
+						// only non-unique CCs are extended on the next level
+						nonUniques.add(candidates.get(i));
+						continue;
+					}
+					
+					// remember UCC for pruning
+					uccs.add(candidates.get(i));
+					List<Integer> columnList = candidates.get(i).getSetBits();
+					
+					// report UCC
+					ColumnIdentifier[] uccIdentifiers = new ColumnIdentifier[columnList.size()];
+					for (int j = 0; j < uccIdentifiers.length; j++) {
+						uccIdentifiers[j] = identifiers[columnList.get(j)];
 					}
-					sets = temp;
-					temp = new HashSet<ColumnCombinationBitset>();
-				} while (superSetSize <= topCCSize);
+					receiver.receiveResult(new UniqueColumnCombination(uccIdentifiers));
+				}
 				
-				// remember UCC for pruning
-				uccs.add(columnList);
+				currentLevel = this.generateNextLevel(nonUniques);
 				
-				// report UCC
-				List<ColumnIdentifier> identifiers = new ArrayList<ColumnIdentifier>(columnList.size());
-				for (Integer columnIndex : columnList) {
-					identifiers.add(new ColumnIdentifier(tableName, columns.get(columnIndex)));
+				// the next level is built from the PLIs of this level's parents at
+				// the least => drop all smaller ones, on the heap and on disk
+				this.pliCache.removeSmallerThan(level - 1);
+				if (this.spillStore != null) {
+					this.spillStore.deleteSmallerThan(level - 1);
+				}
+			}
+			
+			if (asyncReceiver != null) {
+				// forward the last results, fails if the result receiver failed
+				asyncReceiver.close();
+			}
+		} finally {
+			if (asyncReceiver != null) {
+				asyncReceiver.closeQuietly();
+			}
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			this.pliCache = null;
+			this.pliList = null;
+			this.columnStore = null;
+			if (this.spillStore != null) {
+				try {
+					this.spillStore.close();
+				} catch (IOException e) {
+					// temporary files only, nothing to do
+				}
+				this.spillStore = null;
+			}
+			this.sampler = null;
+			this.probe = null;
+		}
+	}
+	
+	/**
+	 * Checks the uniqueness of all given candidates, using the executor if
+	 * there is one and the calling thread otherwise.
+	 * @param candidates the candidates of one lattice level
+	 * @param executor the executor or null for sequential checking
+	 * @return for each candidate (same order) whether it is unique
+	 * @throws AlgorithmExecutionException if a check failed
+	 */
+	private boolean[] checkCandidates(List<ColumnCombinationBitset> candidates, ExecutorService executor)
+			throws AlgorithmExecutionException {
+		boolean[] unique = new boolean[candidates.size()];
+		if (executor == null) {
+			try {
+				for (int i = 0; i < candidates.size(); i++) {
+					unique[i] = this.checkCandidate(candidates.get(i));
+				}
+			} catch (IOException e) {
+				throw new AlgorithmExecutionException("Could not read spilled PLI: " + e.getMessage(), e);
+			}
+			return unique;
+		}
+		
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(candidates.size());
+		for (final ColumnCombinationBitset candidate : candidates) {
+			futures.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws IOException {
+					return checkCandidate(candidate);
+				}
+			}));
+		}
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				unique[i] = futures.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AlgorithmExecutionException("Interrupted while checking column combinations", e);
+		} catch (ExecutionException e) {
+			throw new AlgorithmExecutionException("Could not check column combination: " + e.getCause().getMessage(), e.getCause());
+		}
+		return unique;
+	}
+	
+	/**
+	 * Checks the uniqueness of a single candidate. Candidates that are
+	 * non-unique within the row sample are rejected without building a PLI.
+	 * All others are checked by probing the parent's PLI with the last
+	 * column, which stops at the first duplicate and does not materialize the
+	 * candidate's PLI.
+	 * @param candidate the column combination to check
+	 * @return true if the column combination is unique
+	 * @throws IOException if a spilled PLI cannot be read
+	 */
+	private boolean checkCandidate(ColumnCombinationBitset candidate) throws IOException {
+		if (this.sampler.isNonUnique(candidate)) {
+			return false;
+		}
+		List<Integer> columnList = candidate.getSetBits();
+		if (columnList.size() == 1) {
+			return this.columnStore.isUnique(columnList.get(0));
+		}
+		
+		// apriori-gen extends the parent (= prefix) by the last column
+		int lastIndex = columnList.size() - 1;
+		try (ClusterCursor parentPLI = this.openPLI(columnList.subList(0, lastIndex))) {
+			return this.probe.isUnique(parentPLI, columnList.get(lastIndex));
+		}
+	}
+	
+	/**
+	 * Opens the PLI of the given non-unique column combination. The longest
+	 * prefix whose PLI is still cached or spilled is intersected with the
+	 * remaining columns, i.e. usually a single intersection with the parent's
+	 * PLI. The PLI is only materialized once a candidate of the next level
+	 * needs it and is kept for the candidate's siblings. Intersections of
+	 * spilled PLIs are streamed from one file to the next, so neither is
+	 * loaded onto the heap.
+	 * @param columnList the columns of the combination, sorted ascending
+	 * @return a cursor over the clusters of the PLI, to be closed by the caller
+	 * @throws IOException if a spilled PLI cannot be read or written
+	 */
+	private ClusterCursor openPLI(List<Integer> columnList) throws IOException {
+		if (columnList.size() == 1) {
+			return ClusterCursor.of(this.getColumnPLI(columnList.get(0)));
+		}
+		
+		// find the longest cached or spilled prefix (including the combination itself)
+		int prefixLength = columnList.size();
+		ClusterCursor clusters = null;
+		boolean spilled = false;
+		while (clusters == null && prefixLength > 1) {
+			ColumnCombinationBitset prefix = new ColumnCombinationBitset(columnList.subList(0, prefixLength));
+			PositionListIndex pli = this.pliCache.get(prefix);
+			if (pli != null) {
+				clusters = ClusterCursor.of(pli);
+			} else if (this.spillStore != null) {
+				clusters = this.spillStore.open(prefix);
+				spilled = clusters != null;
+			}
+			if (clusters == null) {
+				prefixLength--;
+			}
+		}
+		if (clusters == null) {
+			// nothing cached => start with the first column
+			prefixLength = 1;
+			clusters = ClusterCursor.of(this.getColumnPLI(columnList.get(0)));
+		}
+		
+		// intersect with the remaining columns, keeping each intermediate PLI
+		// where its input is: on disk if spilled, on the heap otherwise
+		for (int i = prefixLength; i < columnList.size(); i++) {
+			ColumnCombinationBitset prefix = new ColumnCombinationBitset(columnList.subList(0, i + 1));
+			ClusterCursor input = clusters;
+			try {
+				if (spilled) {
+					try (PLISpillStore.Writer writer = this.spillStore.create(prefix)) {
+						this.probe.intersect(input, columnList.get(i), writer);
+						writer.commit();
+					}
+					clusters = this.spillStore.open(prefix);
+				} else {
+					PLICollector collector = new PLICollector();
+					this.probe.intersect(input, columnList.get(i), collector);
+					PositionListIndex pli = collector.getPLI();
+					this.pliCache.put(prefix, pli);
+					clusters = ClusterCursor.of(pli);
+				}
+			} finally {
+				input.close();
+			}
+		}
+		return clusters;
+	}
+	
+	/**
+	 * @param column the column index
+	 * @return the PLI of the single column, from the cache or rebuilt from the
+	 * 	column store if it is not kept in memory
+	 */
+	private PositionListIndex getColumnPLI(int column) {
+		if (this.pliList != null) {
+			return this.pliList.get(column);
+		}
+		ColumnCombinationBitset columnCombination = new ColumnCombinationBitset(column);
+		PositionListIndex pli = this.pliCache.get(columnCombination);
+		if (pli == null) {
+			pli = this.columnStore.buildPLI(column);
+			this.pliCache.put(columnCombination, pli);
+		}
+		return pli;
+	}
+	
+	/**
+	 * Collects the clusters of an intersection into a PLI on the heap.
+	 */
+	private static class PLICollector implements ClusterSink {
+		private final List<LongArrayList> clusters = new ArrayList<LongArrayList>();
+		
+		@Override
+		public void add(int[] rows, int size) {
+			LongArrayList cluster = new LongArrayList(size);
+			for (int i = 0; i < size; i++) {
+				cluster.add(rows[i]);
+			}
+			this.clusters.add(cluster);
+		}
+		
+		public PositionListIndex getPLI() {
+			return new PositionListIndex(this.clusters);
+		}
+	}
+	
+	/**
+	 * Generates the candidates of the next lattice level (apriori-gen): two
+	 * non-unique column combinations of size k that share their first k-1
+	 * columns are joined to a candidate of size k+1. Candidates that contain
+	 * a known UCC are skipped later on, so only the widest level is held in
+	 * memory.
+	 * @param nonUniques the non-unique column combinations of the current
+	 * 	level, sorted lexicographically by their columns
+	 * @return the candidates of the next level, sorted lexicographically
+	 */
+	private List<ColumnCombinationBitset> generateNextLevel(List<ColumnCombinationBitset> nonUniques) {
+		List<ColumnCombinationBitset> nextLevel = new ArrayList<ColumnCombinationBitset>();
+		
+		// get columns once, the join compares them repeatedly
+		List<List<Integer>> columnLists = new ArrayList<List<Integer>>(nonUniques.size());
+		for (ColumnCombinationBitset nonUnique : nonUniques) {
+			columnLists.add(nonUnique.getSetBits());
+		}
+		
+		for (int i = 0; i < columnLists.size(); i++) {
+			List<Integer> first = columnLists.get(i);
+			List<Integer> prefix = first.subList(0, first.size() - 1);
+			for (int j = i + 1; j < columnLists.size(); j++) {
+				List<Integer> second = columnLists.get(j);
+				// sorted input => all partners with the same prefix follow directly
+				if (!prefix.equals(second.subList(0, second.size() - 1))) {
+					break;
 				}
-				this.resultReceiver.receiveResult(new UniqueColumnCombination(identifiers.toArray(new ColumnIdentifier[]{})));
+				nextLevel.add(new ColumnCombinationBitset(first).addColumn(second.get(second.size() - 1)));
 			}
-			allCCs.remove(0);
 		}
+		return nextLevel;
 	}
 	
 	public String toString() {
@@ -0,0 +1,184 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
+import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Bounded cache of intersected position list indexes, keyed by the column
+ * combination they were built for. Entries are evicted in least recently used
+ * order as soon as the estimated size of all cached PLIs exceeds the bound;
+ * while the heap runs low, the bound is lowered step by step. If the cache
+ * has a {@link PLISpillStore}, evicted PLIs are spilled to disk instead of
+ * being dropped; lookups only cover the heap, callers read spilled PLIs from
+ * the store. The cache is thread-safe.
+ */
+public class PLICache {
+
+	// share of the maximum heap the cached PLIs may occupy by default
+	private static final double DEFAULT_HEAP_SHARE = 0.25;
+	// lower the bound if less than this share of the heap is free
+	private static final double MINIMUM_FREE_HEAP_SHARE = 0.1;
+	// share of the cached bytes that is evicted on each put while the heap is low
+	private static final double LOW_HEAP_EVICTION_SHARE = 0.25;
+
+	// rough memory estimate: one long per row, one list object per cluster
+	private static final long BYTES_PER_ROW = 8;
+	private static final long BYTES_PER_CLUSTER = 48;
+
+	private final long maximumSize;
+	// bound in effect: the maximum size, lowered while the heap runs low
+	private long targetSize;
+	private long currentSize = 0;
+	// off-heap tier for evicted PLIs, null = evicted PLIs are dropped
+	private final PLISpillStore spillStore;
+
+	// LinkedHashMap in access order: iteration starts with the least recently used entry
+	private final LinkedHashMap<ColumnCombinationBitset, Entry> entries
+		= new LinkedHashMap<ColumnCombinationBitset, Entry>(16, 0.75f, true);
+
+	private static class Entry {
+		private final PositionListIndex pli;
+		private final long size;
+
+		private Entry(PositionListIndex pli, long size) {
+			this.pli = pli;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Creates a cache that may use a quarter of the maximum heap.
+	 * @param spillStore the store for evicted PLIs or null to drop them
+	 */
+	public PLICache(PLISpillStore spillStore) {
+		this((long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_SHARE), spillStore);
+	}
+
+	/**
+	 * @param maximumSize the estimated number of bytes all cached PLIs may occupy
+	 * @param spillStore the store for evicted PLIs or null to drop them
+	 */
+	public PLICache(long maximumSize, PLISpillStore spillStore) {
+		this.maximumSize = maximumSize;
+		this.targetSize = maximumSize;
+		this.spillStore = spillStore;
+	}
+
+	/**
+	 * @param columnCombination the column combination to look up
+	 * @return the cached PLI or null if it is not (or no longer) on the heap;
+	 * 	spilled PLIs are read from the {@link PLISpillStore} directly
+	 */
+	public synchronized PositionListIndex get(ColumnCombinationBitset columnCombination) {
+		Entry entry = this.entries.get(columnCombination);
+		return entry != null ? entry.pli : null;
+	}
+
+	/**
+	 * Caches the given PLI, evicting least recently used entries if necessary.
+	 * PLIs that are larger than the whole cache are not kept in memory.
+	 * @param columnCombination the column combination the PLI was built for
+	 * @param pli the PLI
+	 */
+	public void put(ColumnCombinationBitset columnCombination, PositionListIndex pli) {
+		long size = estimateSize(pli);
+		if (size > this.maximumSize) {
+			this.spill(columnCombination, pli);
+			return;
+		}
+
+		Map<ColumnCombinationBitset, PositionListIndex> evicted;
+		synchronized (this) {
+			Entry previous = this.entries.put(columnCombination, new Entry(pli, size));
+			if (previous != null) {
+				this.currentSize -= previous.size;
+			}
+			this.currentSize += size;
+			evicted = this.evict(columnCombination);
+		}
+		// write to disk without holding the lock
+		for (Map.Entry<ColumnCombinationBitset, PositionListIndex> entry : evicted.entrySet()) {
+			this.spill(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Removes the PLIs of all column combinations with fewer columns than
+	 * given, i.e. of lattice levels that are no longer needed. They are
+	 * dropped, not spilled.
+	 * @param numberOfColumns the size of the smallest column combinations to keep
+	 */
+	public synchronized void removeSmallerThan(int numberOfColumns) {
+		Iterator<Map.Entry<ColumnCombinationBitset, Entry>> iterator = this.entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<ColumnCombinationBitset, Entry> entry = iterator.next();
+			if (entry.getKey().size() < numberOfColumns) {
+				this.currentSize -= entry.getValue().size;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes least recently used entries until the cached PLIs fit the
+	 * target size. The used heap only drops after a garbage collection, so it
+	 * is checked once per put: while it is low, each put lowers the target to
+	 * a share of the current size instead of evicting until the figure
+	 * changes. The entry that has just been added is kept.
+	 * @param added the column combination that has just been added
+	 * @return the evicted PLIs, to be spilled by the caller
+	 */
+	private Map<ColumnCombinationBitset, PositionListIndex> evict(ColumnCombinationBitset added) {
+		if (isHeapLow()) {
+			this.targetSize = Math.min(this.targetSize,
+					this.currentSize - (long) (this.currentSize * LOW_HEAP_EVICTION_SHARE));
+		} else {
+			this.targetSize = this.maximumSize;
+		}
+
+		Map<ColumnCombinationBitset, PositionListIndex> evicted = new LinkedHashMap<ColumnCombinationBitset, PositionListIndex>();
+		Iterator<Map.Entry<ColumnCombinationBitset, Entry>> iterator = this.entries.entrySet().iterator();
+		while (iterator.hasNext() && this.currentSize > this.targetSize) {
+			Map.Entry<ColumnCombinationBitset, Entry> eldest = iterator.next();
+			if (eldest.getKey().equals(added)) {
+				continue;
+			}
+			evicted.put(eldest.getKey(), eldest.getValue().pli);
+			this.currentSize -= eldest.getValue().size;
+			iterator.remove();
+		}
+		return evicted;
+	}
+
+	private void spill(ColumnCombinationBitset columnCombination, PositionListIndex pli) {
+		if (this.spillStore == null) {
+			return;
+		}
+		try {
+			this.spillStore.write(columnCombination, pli);
+		} catch (IOException e) {
+			// the cache is only an optimization, the PLI can be rebuilt => drop it
+		}
+	}
+
+	private static boolean isHeapLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return runtime.maxMemory() - used < runtime.maxMemory() * MINIMUM_FREE_HEAP_SHARE;
+	}
+
+	private static long estimateSize(PositionListIndex pli) {
+		long size = 0;
+		for (LongArrayList cluster : pli.getClusters()) {
+			size += BYTES_PER_CLUSTER + cluster.size() * BYTES_PER_ROW;
+		}
+		return size;
+	}
+
+}
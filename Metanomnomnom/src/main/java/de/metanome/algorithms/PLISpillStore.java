@@ -0,0 +1,268 @@
+package de.metanome.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
+import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Spill tier for position list indexes that do not fit on the heap. Each PLI
+ * is written to its own file in a temporary directory as a compact run of
+ * ints (size and row numbers of each cluster). The files are read through
+ * memory-mapped windows by a {@link ClusterCursor}, one cluster at a time, so
+ * a spilled PLI is never loaded onto the heap as a whole. Each file is mapped
+ * once, on its first read, and all cursors share that mapping; it is released
+ * with the file. The store is thread-safe.
+ */
+public class PLISpillStore implements Closeable {
+
+	// size of the memory-mapped windows when reading, in ints
+	private static final int WINDOW_SIZE = 1 << 26;
+
+	private final Path directory;
+	private final Map<ColumnCombinationBitset, SpilledFile> files = new HashMap<ColumnCombinationBitset, SpilledFile>();
+	// numbers the files, writers of the same PLI never share a file
+	private int fileCounter = 0;
+
+	/**
+	 * Creates the store in a new temporary directory.
+	 * @throws IOException if the directory cannot be created
+	 */
+	public PLISpillStore() throws IOException {
+		this.directory = Files.createTempDirectory("metanomnomnom_plis");
+	}
+
+	/**
+	 * Writes a PLI to disk. A PLI that has already been spilled is not written again.
+	 * @param columnCombination the column combination the PLI was built for
+	 * @param pli the PLI
+	 * @throws IOException if the PLI cannot be written
+	 */
+	public void write(ColumnCombinationBitset columnCombination, PositionListIndex pli) throws IOException {
+		synchronized (this) {
+			if (this.files.containsKey(columnCombination)) {
+				return;
+			}
+		}
+		try (Writer writer = this.create(columnCombination)) {
+			int[] rows = new int[16];
+			for (LongArrayList cluster : pli.getClusters()) {
+				if (cluster.size() > rows.length) {
+					rows = new int[cluster.size()];
+				}
+				for (int i = 0; i < cluster.size(); i++) {
+					rows[i] = (int) cluster.getLong(i);
+				}
+				writer.add(rows, cluster.size());
+			}
+			writer.commit();
+		}
+	}
+
+	/**
+	 * Creates a writer that streams the clusters of a PLI to disk, e.g. while
+	 * the PLI is being intersected. The PLI is stored on
+	 * {@link Writer#commit()}; closing the writer without committing discards
+	 * the file.
+	 * @param columnCombination the column combination the PLI is built for
+	 * @return the writer
+	 * @throws IOException if the file cannot be created
+	 */
+	public Writer create(ColumnCombinationBitset columnCombination) throws IOException {
+		Path file;
+		synchronized (this) {
+			file = this.directory.resolve(this.fileCounter++ + ".pli");
+		}
+		return new Writer(columnCombination, file);
+	}
+
+	/**
+	 * Opens a spilled PLI for reading through memory-mapped windows.
+	 * @param columnCombination the column combination
+	 * @return a cursor over the clusters of the PLI or null if it has not been spilled
+	 * @throws IOException if the file cannot be opened
+	 */
+	public ClusterCursor open(ColumnCombinationBitset columnCombination) throws IOException {
+		SpilledFile file;
+		synchronized (this) {
+			file = this.files.get(columnCombination);
+		}
+		if (file == null) {
+			return null;
+		}
+		return new MappedClusterCursor(file.map());
+	}
+
+	/**
+	 * Deletes the spilled PLIs of all column combinations with fewer columns
+	 * than given, i.e. of lattice levels that are no longer needed.
+	 * @param numberOfColumns the size of the smallest column combinations to keep
+	 */
+	public synchronized void deleteSmallerThan(int numberOfColumns) {
+		Iterator<Map.Entry<ColumnCombinationBitset, SpilledFile>> iterator = this.files.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<ColumnCombinationBitset, SpilledFile> entry = iterator.next();
+			if (entry.getKey().size() < numberOfColumns) {
+				delete(entry.getValue().path);
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Deletes all spilled PLIs and the temporary directory.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for (SpilledFile file : this.files.values()) {
+			delete(file.path);
+		}
+		this.files.clear();
+		Files.deleteIfExists(this.directory);
+	}
+
+	private synchronized void store(ColumnCombinationBitset columnCombination, Path file) {
+		if (this.files.containsKey(columnCombination)) {
+			// another thread spilled the same PLI in the meantime
+			delete(file);
+			return;
+		}
+		this.files.put(columnCombination, new SpilledFile(file));
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// temporary file only; a mapping that is still open may prevent the deletion on some systems
+		}
+	}
+
+	/**
+	 * A spilled PLI and its memory-mapped windows, which are shared by all
+	 * cursors of the file.
+	 */
+	private static class SpilledFile {
+		private final Path path;
+		private IntBuffer[] windows = null;
+
+		private SpilledFile(Path path) {
+			this.path = path;
+		}
+
+		/**
+		 * @return the windows of the file, mapped on the first call
+		 * @throws IOException if the file cannot be mapped
+		 */
+		private synchronized IntBuffer[] map() throws IOException {
+			if (this.windows == null) {
+				// the mappings stay valid after the channel is closed
+				try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+					long numberOfInts = channel.size() / 4;
+					IntBuffer[] windows = new IntBuffer[(int) ((numberOfInts + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+					for (int i = 0; i < windows.length; i++) {
+						long position = (long) i * WINDOW_SIZE;
+						long size = Math.min(WINDOW_SIZE, numberOfInts - position);
+						windows[i] = channel.map(MapMode.READ_ONLY, position * 4, size * 4).asIntBuffer();
+					}
+					this.windows = windows;
+				}
+			}
+			return this.windows;
+		}
+	}
+
+	/**
+	 * Streams clusters to a new file, see {@link #create(ColumnCombinationBitset)}.
+	 */
+	public class Writer implements ClusterSink, Closeable {
+		private final ColumnCombinationBitset columnCombination;
+		private final Path file;
+		private final DataOutputStream output;
+		private boolean committed = false;
+
+		private Writer(ColumnCombinationBitset columnCombination, Path file) throws IOException {
+			this.columnCombination = columnCombination;
+			this.file = file;
+			this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+		}
+
+		@Override
+		public void add(int[] rows, int size) throws IOException {
+			this.output.writeInt(size);
+			for (int i = 0; i < size; i++) {
+				this.output.writeInt(rows[i]);
+			}
+		}
+
+		/**
+		 * Completes the file and stores the PLI.
+		 * @throws IOException if the file cannot be completed
+		 */
+		public void commit() throws IOException {
+			this.output.close();
+			this.committed = true;
+			store(this.columnCombination, this.file);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.committed) {
+				this.output.close();
+				delete(this.file);
+			}
+		}
+	}
+
+	/**
+	 * Reads the clusters of a file sequentially through its memory-mapped
+	 * windows, so files larger than a single mapping (2 GB) can be read as
+	 * well. Each cursor reads a duplicate of the shared windows.
+	 */
+	private static class MappedClusterCursor extends ClusterCursor {
+		private final IntBuffer[] windows;
+		private int windowIndex = -1;
+		private IntBuffer window = IntBuffer.allocate(0);
+
+		private MappedClusterCursor(IntBuffer[] windows) {
+			this.windows = windows;
+		}
+
+		@Override
+		public boolean next() throws IOException {
+			if (!this.window.hasRemaining() && this.windowIndex + 1 == this.windows.length) {
+				return false;
+			}
+			this.size = this.nextInt();
+			this.ensureCapacity(this.size);
+			for (int i = 0; i < this.size; i++) {
+				this.rows[i] = this.nextInt();
+			}
+			return true;
+		}
+
+		private int nextInt() throws IOException {
+			while (!this.window.hasRemaining()) {
+				if (++this.windowIndex == this.windows.length) {
+					throw new IOException("Unexpected end of spilled PLI");
+				}
+				this.window = this.windows[this.windowIndex].duplicate();
+			}
+			return this.window.get();
+		}
+	}
+
+}
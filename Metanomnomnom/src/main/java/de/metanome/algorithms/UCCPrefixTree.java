@@ -0,0 +1,96 @@
+package de.metanome.algorithms;
+
+import java.util.List;
+
+import de.metanome.algorithm_helper.data_structures.ColumnCombinationBitset;
+
+/**
+ * Set-trie over the column indexes of the minimal UCCs found so far. Each UCC
+ * is a path of ascending column indexes from the root to a marked node, so
+ * asking whether a column combination contains any known UCC only follows
+ * the paths made of its own columns instead of comparing it to every UCC.
+ */
+public class UCCPrefixTree {
+
+	private final int numberOfColumns;
+	private final Node root;
+	private int size = 0;
+
+	private static class Node {
+		// children indexed by column, null until the first child is added
+		private Node[] children = null;
+		// true if the path to this node is a UCC
+		private boolean ucc = false;
+	}
+
+	/**
+	 * @param numberOfColumns the number of columns of the relation
+	 */
+	public UCCPrefixTree(int numberOfColumns) {
+		this.numberOfColumns = numberOfColumns;
+		this.root = new Node();
+	}
+
+	/**
+	 * Adds a UCC to the tree.
+	 * @param ucc the columns of the UCC
+	 */
+	public void add(ColumnCombinationBitset ucc) {
+		Node node = this.root;
+		for (Integer column : ucc.getSetBits()) {
+			if (node.children == null) {
+				node.children = new Node[this.numberOfColumns];
+			}
+			if (node.children[column] == null) {
+				node.children[column] = new Node();
+			}
+			node = node.children[column];
+		}
+		if (!node.ucc) {
+			node.ucc = true;
+			this.size++;
+		}
+	}
+
+	/**
+	 * @param columnCombination the column combination to check
+	 * @return true if any UCC in the tree is a subset of (or equal to) the
+	 * 	column combination
+	 */
+	public boolean containsSubsetOf(ColumnCombinationBitset columnCombination) {
+		if (this.size == 0) {
+			return false;
+		}
+		List<Integer> columnList = columnCombination.getSetBits();
+		int[] columns = new int[columnList.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = columnList.get(i);
+		}
+		return containsSubsetOf(this.root, columns, 0);
+	}
+
+	/**
+	 * @return the number of UCCs in the tree
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private static boolean containsSubsetOf(Node node, int[] columns, int from) {
+		if (node.ucc) {
+			return true;
+		}
+		if (node.children == null) {
+			return false;
+		}
+		// only descend along the columns of the combination, in ascending order
+		for (int i = from; i < columns.length; i++) {
+			Node child = node.children[columns[i]];
+			if (child != null && containsSubsetOf(child, columns, i + 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
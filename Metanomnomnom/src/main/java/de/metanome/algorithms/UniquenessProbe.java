@@ -0,0 +1,120 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Checks whether the intersection of a PLI with the PLI of one more column is
+ * unique without materializing the intersection. The value ids of the
+ * additional column serve as probing table (row => value id); the probe looks
+ * up the rows of every cluster and stops at the first two rows that share a
+ * value of the additional column. The same probing table splits the clusters
+ * when the intersection is needed after all. Both read the PLI one cluster at
+ * a time, so it may as well come from a spilled file.
+ */
+public class UniquenessProbe {
+
+	private final ColumnStore columnStore;
+
+	/**
+	 * @param columnStore the dictionary-encoded relation
+	 */
+	public UniquenessProbe(ColumnStore columnStore) {
+		this.columnStore = columnStore;
+	}
+
+	/**
+	 * @param clusters the clusters of the PLI of a column combination
+	 * @param column the additional column
+	 * @return true if the column combination extended by the column is unique
+	 * @throws IOException if a cluster cannot be read
+	 */
+	public boolean isUnique(ClusterCursor clusters, int column) throws IOException {
+		int[] probingTable = this.columnStore.getValueIds(column);
+
+		// open addressing set of value ids, reused across clusters via stamps
+		int[] ids = new int[0];
+		int[] stamps = new int[0];
+		int stamp = 0;
+
+		while (clusters.next()) {
+			int[] rows = clusters.rows();
+			int size = clusters.size();
+			int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+			if (capacity > ids.length) {
+				ids = new int[capacity];
+				stamps = new int[capacity];
+				stamp = 0;
+			}
+			int mask = capacity - 1;
+			stamp++;
+
+			for (int i = 0; i < size; i++) {
+				int id = probingTable[rows[i]];
+				if (id == ColumnStore.NULL_ID) {
+					continue;
+				}
+				int slot = (id * 0x9E3779B9) >>> 7 & mask;
+				while (stamps[slot] == stamp) {
+					if (ids[slot] == id) {
+						// two rows agree on all columns => abort
+						return false;
+					}
+					slot = (slot + 1) & mask;
+				}
+				stamps[slot] = stamp;
+				ids[slot] = id;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Intersects a PLI with the PLI of one more column: the rows of each
+	 * cluster are sorted by their value id in the column, and every run of
+	 * at least two rows with the same id is a cluster of the intersection.
+	 * @param clusters the clusters of the PLI of a column combination
+	 * @param column the additional column
+	 * @param result receives the clusters of the intersection
+	 * @throws IOException if a cluster cannot be read or written
+	 */
+	public void intersect(ClusterCursor clusters, int column, ClusterSink result) throws IOException {
+		int[] probingTable = this.columnStore.getValueIds(column);
+
+		// value id in the upper, row number in the lower half => sorted by id, then row
+		long[] keys = new long[0];
+		int[] rows = new int[0];
+
+		while (clusters.next()) {
+			int size = clusters.size();
+			if (size > keys.length) {
+				keys = new long[size];
+				rows = new int[size];
+			}
+			int numberOfKeys = 0;
+			for (int i = 0; i < size; i++) {
+				int row = clusters.rows()[i];
+				int id = probingTable[row];
+				if (id != ColumnStore.NULL_ID) {
+					keys[numberOfKeys++] = (long) id << 32 | row;
+				}
+			}
+			Arrays.sort(keys, 0, numberOfKeys);
+
+			for (int start = 0; start < numberOfKeys; ) {
+				int end = start + 1;
+				while (end < numberOfKeys && keys[end] >>> 32 == keys[start] >>> 32) {
+					end++;
+				}
+				if (end - start > 1) {
+					for (int i = start; i < end; i++) {
+						rows[i - start] = (int) keys[i];
+					}
+					result.add(rows, end - start);
+				}
+				start = end;
+			}
+		}
+	}
+
+}
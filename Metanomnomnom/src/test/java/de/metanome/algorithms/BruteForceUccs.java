@@ -0,0 +1,66 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reference for the UCC search: checks every column combination against all
+ * rows. Only for small tables.
+ */
+class BruteForceUccs {
+
+	/**
+	 * @return the minimal UCCs of the table as sets of column names, null != null
+	 */
+	static Set<Set<String>> discover(CsvInput table) {
+		int numberOfColumns = table.getHeader().size();
+		Set<Set<String>> result = new HashSet<Set<String>>();
+		for (int combination = 1; combination < 1 << numberOfColumns; combination++) {
+			if (!isUnique(table.getRows(), combination)) {
+				continue;
+			}
+			// uniqueness is monotone, so it suffices to check the direct subsets
+			boolean minimal = true;
+			for (int column = 0; column < numberOfColumns && minimal; column++) {
+				int subset = combination & ~(1 << column);
+				minimal = subset == combination || subset == 0 || !isUnique(table.getRows(), subset);
+			}
+			if (minimal) {
+				Set<String> columns = new TreeSet<String>();
+				for (int column = 0; column < numberOfColumns; column++) {
+					if ((combination & 1 << column) != 0) {
+						columns.add(table.getHeader().get(column));
+					}
+				}
+				result.add(columns);
+			}
+		}
+		return result;
+	}
+
+	private static boolean isUnique(List<List<String>> rows, int combination) {
+		Set<List<String>> values = new HashSet<List<String>>();
+		for (List<String> row : rows) {
+			List<String> key = new ArrayList<String>();
+			for (int column = 0; column < row.size(); column++) {
+				if ((combination & 1 << column) == 0) {
+					continue;
+				}
+				if (row.get(column) == null) {
+					// rows with a null never agree with any other row
+					key = null;
+					break;
+				}
+				key.add(row.get(column));
+			}
+			if (key != null && !values.add(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,98 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
+
+/**
+ * Comma separated test table: a header line followed by the rows. Empty
+ * fields are nulls. Each copy returns the header as its first row, because
+ * Metanomnomnom reads the column names from it.
+ */
+class CsvInput implements RelationalInputGenerator {
+
+	private final String name;
+	private final List<String> header;
+	private final List<List<String>> rows = new ArrayList<List<String>>();
+
+	CsvInput(String name, String... lines) {
+		this.name = name;
+		this.header = Arrays.asList(lines[0].split(",", -1));
+		for (int i = 1; i < lines.length; i++) {
+			List<String> row = new ArrayList<String>();
+			for (String value : lines[i].split(",", -1)) {
+				row.add(value.isEmpty() ? null : value);
+			}
+			this.rows.add(row);
+		}
+	}
+
+	/**
+	 * Reads a test file, skipping empty lines. Relative paths are resolved
+	 * against the module directory.
+	 */
+	static CsvInput fromFile(String path) throws IOException {
+		byte[] bytes = Files.readAllBytes(Paths.get(path));
+		List<String> lines = new ArrayList<String>();
+		for (String line : new String(bytes, "UTF-8").split("\r\n|\r|\n")) {
+			if (!line.isEmpty()) {
+				lines.add(line);
+			}
+		}
+		return new CsvInput(Paths.get(path).getFileName().toString().split("\\.")[0], lines.toArray(new String[lines.size()]));
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	List<String> getHeader() {
+		return this.header;
+	}
+
+	List<List<String>> getRows() {
+		return this.rows;
+	}
+
+	@Override
+	public RelationalInput generateNewCopy() {
+		final List<List<String>> lines = new ArrayList<List<String>>();
+		lines.add(this.header);
+		lines.addAll(this.rows);
+		return new RelationalInput() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.next < lines.size();
+			}
+
+			@Override
+			public List<String> next() {
+				return this.hasNext() ? lines.get(this.next++) : null;
+			}
+
+			@Override
+			public int numberOfColumns() {
+				return header.size();
+			}
+
+			@Override
+			public String relationName() {
+				return name;
+			}
+
+			@Override
+			public List<String> columnNames() {
+				return header;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.result_receiver.UniqueColumnCombinationResultReceiver;
+import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+
+public class MetanomnomnomTest {
+
+	private static final String PLANETS = "../MetanomeTestRunner/data/planets/WDC_planets.csv";
+
+	// string configurations each table is checked with; every one runs with the default and a tiny PLI cache
+	private static final String[][] CONFIGURATIONS = {
+		{},
+		{"THREADS", "4"},
+		{"SAMPLE_SIZE", "0"},
+		{"SPILL_PLIS", "true"},
+		{"SPILL_PLIS", "true", "THREADS", "4"},
+		{"ASYNC_RESULTS", "true", "THREADS", "4"}};
+
+	@Test
+	public void testPlanets() throws Exception {
+		assertFindsMinimalUccs(CsvInput.fromFile(PLANETS));
+	}
+
+	@Test
+	public void testNulls() throws Exception {
+		// null != null: A and B are unique, although A contains two nulls
+		assertFindsMinimalUccs(new CsvInput("nulls",
+				"A,B,C,D",
+				",x,1,p",
+				",y,1,p",
+				"1,,2,q",
+				"2,z,2,",
+				"3,w,,"));
+	}
+
+	@Test
+	public void testRandomTables() throws Exception {
+		Random random = new Random(42);
+		for (int table = 0; table < 20; table++) {
+			int numberOfColumns = 3 + random.nextInt(5);
+			String[] lines = new String[1 + 4 + random.nextInt(20)];
+			StringBuilder header = new StringBuilder("C0");
+			for (int column = 1; column < numberOfColumns; column++) {
+				header.append(",C").append(column);
+			}
+			lines[0] = header.toString();
+			// small domains and some nulls, so there are UCCs on several levels
+			int[] domains = new int[numberOfColumns];
+			for (int column = 0; column < numberOfColumns; column++) {
+				domains[column] = 1 + random.nextInt(5);
+			}
+			for (int row = 1; row < lines.length; row++) {
+				StringBuilder line = new StringBuilder();
+				for (int column = 0; column < numberOfColumns; column++) {
+					line.append(column == 0 ? "" : ",");
+					if (random.nextInt(10) > 0) {
+						line.append(random.nextInt(domains[column]));
+					}
+				}
+				lines[row] = line.toString();
+			}
+			assertFindsMinimalUccs(new CsvInput("random" + table, lines));
+		}
+	}
+
+	@Test(expected = AlgorithmConfigurationException.class)
+	public void testUnparseableBooleanIsRejected() throws Exception {
+		new Metanomnomnom().setStringConfigurationValue(Metanomnomnom.Identifier.SPILL_PLIS.name(), "yes");
+	}
+
+	/**
+	 * Runs the search with every configuration and compares it with the
+	 * brute-force reference. The tiny PLI cache evicts (and if spilling,
+	 * spills) every PLI as soon as it is built, so each one is rebuilt or
+	 * read back from disk.
+	 */
+	private static void assertFindsMinimalUccs(CsvInput table) throws Exception {
+		Set<Set<String>> expected = BruteForceUccs.discover(table);
+		for (String[] configuration : CONFIGURATIONS) {
+			for (long pliCacheSize : new long[] {0, 1}) {
+				Metanomnomnom algorithm = new Metanomnomnom();
+				algorithm.setRelationalInputConfigurationValue(Metanomnomnom.Identifier.INPUT_GENERATOR.name(), table);
+				for (int i = 0; i < configuration.length; i += 2) {
+					algorithm.setStringConfigurationValue(configuration[i], configuration[i + 1]);
+				}
+				algorithm.pliCacheSize = pliCacheSize;
+				UccCollector collector = new UccCollector();
+				algorithm.setResultReceiver(collector);
+				algorithm.execute();
+
+				assertEquals(table.getName() + " with " + Arrays.toString(configuration) + ", cache " + pliCacheSize,
+						expected, collector.uccs);
+			}
+		}
+	}
+
+	private static class UccCollector implements UniqueColumnCombinationResultReceiver {
+		private final Set<Set<String>> uccs = new HashSet<Set<String>>();
+
+		@Override
+		public void receiveResult(UniqueColumnCombination ucc) {
+			Set<String> columns = new TreeSet<String>();
+			for (ColumnIdentifier column : ucc.getColumnCombination().getColumnIdentifiers()) {
+				columns.add(column.getColumnIdentifier());
+			}
+			this.uccs.add(columns);
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package de.metanome.algorithms;
+
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.result_receiver.InclusionDependencyResultReceiver;
+import de.metanome.algorithm_integration.results.InclusionDependency;
+
+/**
+ * Forwards inclusion dependencies to another receiver on a separate writer thread, see
+ * {@link AsyncReceiver}.
+ */
+public class AsyncInclusionDependencyReceiver extends AsyncReceiver<InclusionDependency>
+		implements InclusionDependencyResultReceiver {
+
+	private final InclusionDependencyResultReceiver receiver;
+
+	/**
+	 * Starts the writer thread.
+	 * @param receiver the receiver to forward the results to
+	 */
+	public AsyncInclusionDependencyReceiver(InclusionDependencyResultReceiver receiver) {
+		super("MuchDiscoVeryDisco result writer");
+		this.receiver = receiver;
+	}
+
+	@Override
+	public void receiveResult(InclusionDependency result) throws CouldNotReceiveResultException {
+		this.receive(result);
+	}
+
+	@Override
+	protected void forward(InclusionDependency result) throws CouldNotReceiveResultException {
+		this.receiver.receiveResult(result);
+	}
+
+}
@@ -0,0 +1,80 @@
+package de.metanome.algorithms;
+
+/**
+ * Fixed-size Bloom filter over the distinct values of a column. Filters of
+ * the same size and number of hash functions can be compared directly: if
+ * a bit of the dependent column's filter is not set in the referenced
+ * column's filter, some dependent value is certainly missing from the
+ * referenced column.
+ */
+public class BloomFilter {
+
+	private final long[] bits;
+	private final int numberOfHashFunctions;
+
+	/**
+	 * @param numberOfBits the size of the filter, rounded up to a multiple of 64
+	 * @param numberOfHashFunctions the number of bits set per value
+	 */
+	public BloomFilter(int numberOfBits, int numberOfHashFunctions) {
+		this.bits = new long[Math.max(1, (numberOfBits + 63) / 64)];
+		this.numberOfHashFunctions = numberOfHashFunctions;
+	}
+
+	/**
+	 * @param numberOfValues the number of distinct values to add
+	 * @param falsePositiveProbability the targeted false positive probability
+	 * @return the size of a filter with the given false positive probability,
+	 * 	-n * ln(p) / ln(2)^2 bits
+	 */
+	public static int numberOfBits(int numberOfValues, double falsePositiveProbability) {
+		double numberOfBits = -numberOfValues * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+		return (int) Math.min(Integer.MAX_VALUE, Math.ceil(numberOfBits));
+	}
+
+	/**
+	 * @param falsePositiveProbability the targeted false positive probability
+	 * @return the number of hash functions that minimizes the size of a filter
+	 * 	with the given false positive probability
+	 */
+	public static int numberOfHashFunctions(double falsePositiveProbability) {
+		return Math.max(1, (int) Math.round(-Math.log(falsePositiveProbability) / Math.log(2)));
+	}
+
+	public void add(String value) {
+		// double hashing: the i-th bit is h1 + i * h2
+		long hash = mix(value.hashCode());
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		long numberOfBits = this.bits.length * 64L;
+		for (int i = 0; i < this.numberOfHashFunctions; i++) {
+			int bit = (int) (((h1 + i * h2) & 0xFFFFFFFFL) % numberOfBits);
+			this.bits[bit >>> 6] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * @param other a filter of the same size and number of hash functions
+	 * @return false if a value added to this filter is certainly not contained
+	 * 	in the other filter
+	 */
+	public boolean mayBeIncludedIn(BloomFilter other) {
+		for (int word = 0; word < this.bits.length; word++) {
+			if ((this.bits[word] & ~other.bits[word]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// finalizer of MurmurHash3 (64 bit), spreads the string hash over both halves
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
@@ -0,0 +1,154 @@
+package de.metanome.algorithms;
+
+import java.util.Properties;
+
+/**
+ * Statistics of a column that are collected while its values are read and
+ * sorted: number of distinct values, smallest and largest value (in the sort
+ * order of the value files), number of nulls and the most general type of
+ * its values. They suffice to refute many inclusion dependency candidates
+ * without comparing any values.
+ */
+public class ColumnStatistics {
+
+	/**
+	 * Value types, ordered from the most specific to the most general.
+	 */
+	public enum Type {
+		INTEGER, DECIMAL, STRING
+	}
+
+	private int distinctValues = 0;
+	private String min = null;
+	private String max = null;
+	private long nulls = 0;
+	private Type type = Type.INTEGER;
+
+	public void addNull() {
+		this.nulls++;
+	}
+
+	/**
+	 * @param value the next distinct value, in ascending order
+	 */
+	public void addDistinctValue(String value) {
+		if (this.distinctValues == 0) {
+			this.min = value;
+		}
+		this.max = value;
+		this.distinctValues++;
+		if (this.type != Type.STRING) {
+			Type valueType = inferType(value);
+			if (valueType.ordinal() > this.type.ordinal()) {
+				this.type = valueType;
+			}
+		}
+	}
+
+	/**
+	 * Checks the necessary conditions for an inclusion dependency: the
+	 * dependent column must not have more distinct values than the referenced
+	 * one, its values must lie within the referenced column's range and must
+	 * not be more general than the referenced column's type.
+	 * @param referenced the statistics of the referenced column
+	 * @return false if this column cannot be included in the referenced column
+	 */
+	public boolean canBeIncludedIn(ColumnStatistics referenced) {
+		if (this.distinctValues == 0) {
+			// empty (or all null) columns are included in any column
+			return true;
+		}
+		return this.distinctValues <= referenced.distinctValues
+				&& this.min.compareTo(referenced.min) >= 0
+				&& this.max.compareTo(referenced.max) <= 0
+				&& this.type.ordinal() <= referenced.type.ordinal();
+	}
+
+	public int getDistinctValues() {
+		return this.distinctValues;
+	}
+
+	public String getMin() {
+		return this.min;
+	}
+
+	public String getMax() {
+		return this.max;
+	}
+
+	public long getNulls() {
+		return this.nulls;
+	}
+
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * @param properties the properties to write to
+	 * @param prefix the prefix of the keys
+	 */
+	public void store(Properties properties, String prefix) {
+		properties.setProperty(prefix + "distinct", String.valueOf(this.distinctValues));
+		properties.setProperty(prefix + "nulls", String.valueOf(this.nulls));
+		properties.setProperty(prefix + "type", this.type.name());
+		if (this.distinctValues > 0) {
+			properties.setProperty(prefix + "min", this.min);
+			properties.setProperty(prefix + "max", this.max);
+		}
+	}
+
+	/**
+	 * @param properties the properties to read from
+	 * @param prefix the prefix of the keys
+	 * @return the statistics or null if they are missing or incomplete
+	 */
+	public static ColumnStatistics load(Properties properties, String prefix) {
+		ColumnStatistics statistics = new ColumnStatistics();
+		try {
+			statistics.distinctValues = Integer.parseInt(properties.getProperty(prefix + "distinct"));
+			statistics.nulls = Long.parseLong(properties.getProperty(prefix + "nulls"));
+			statistics.type = Type.valueOf(properties.getProperty(prefix + "type"));
+		} catch (NumberFormatException | NullPointerException e) {
+			return null;
+		}
+		statistics.min = properties.getProperty(prefix + "min");
+		statistics.max = properties.getProperty(prefix + "max");
+		if (statistics.distinctValues > 0 && (statistics.min == null || statistics.max == null)) {
+			return null;
+		}
+		return statistics;
+	}
+
+	private static Type inferType(String value) {
+		int length = value.length();
+		int i = 0;
+		if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+			i++;
+		}
+		boolean digits = false;
+		boolean point = false;
+		boolean exponent = false;
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits = true;
+			} else if (c == '.' && !point && !exponent) {
+				point = true;
+			} else if ((c == 'e' || c == 'E') && digits && !exponent) {
+				exponent = true;
+				digits = false;
+				if (i + 1 < length && (value.charAt(i + 1) == '-' || value.charAt(i + 1) == '+')) {
+					i++;
+				}
+			} else {
+				return Type.STRING;
+			}
+		}
+		if (!digits) {
+			return Type.STRING;
+		}
+		return point || exponent ? Type.DECIMAL : Type.INTEGER;
+	}
+
+}
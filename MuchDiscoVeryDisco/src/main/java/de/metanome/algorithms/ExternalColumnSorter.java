@@ -0,0 +1,141 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Sorts the distinct values of all columns of one table in bounded memory.
+ * Values are collected in one sorted set per column; whenever all sets
+ * together hold the maximum number of values, each set is written to a
+ * sorted run file and cleared. Finally, the runs of each column are merged
+ * (removing duplicates) into one sorted value file per column.
+ */
+public class ExternalColumnSorter {
+
+	private final Path directory;
+	private final int maxValuesInMemory;
+
+	private final List<TreeSet<String>> buffers;
+	private final List<List<Path>> runs;
+	private int bufferedValues = 0;
+
+	/**
+	 * @param directory the directory for the run and value files
+	 * @param numberOfColumns the number of columns of the table
+	 * @param maxValuesInMemory the number of values to buffer before spilling runs
+	 */
+	public ExternalColumnSorter(Path directory, int numberOfColumns, int maxValuesInMemory) {
+		this.directory = directory;
+		this.maxValuesInMemory = maxValuesInMemory;
+		this.buffers = new ArrayList<TreeSet<String>>(numberOfColumns);
+		this.runs = new ArrayList<List<Path>>(numberOfColumns);
+		for (int column = 0; column < numberOfColumns; column++) {
+			this.buffers.add(new TreeSet<String>());						// TreeSet: natural ordering, distinctness
+			this.runs.add(new ArrayList<Path>());
+		}
+	}
+
+	/**
+	 * @param column the column index
+	 * @param value a (non-null) value of the column
+	 * @throws IOException if a run cannot be written
+	 */
+	public void add(int column, String value) throws IOException {
+		if (this.buffers.get(column).add(value) && ++this.bufferedValues >= this.maxValuesInMemory) {
+			for (int i = 0; i < this.buffers.size(); i++) {
+				this.spillRun(i);
+			}
+			this.bufferedValues = 0;
+		}
+	}
+
+	/**
+	 * Writes the sorted distinct values of a column to its value file.
+	 * @param column the column index
+	 * @param file the value file
+	 * @param statistics receives the distinct values as they are written, may be null
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public void finish(int column, Path file, ColumnStatistics statistics) throws IOException {
+		List<Path> columnRuns = this.runs.get(column);
+		if (columnRuns.isEmpty()) {
+			// everything fits into memory
+			write(this.buffers.get(column), file, statistics);
+			this.buffers.set(column, null);
+			return;
+		}
+		this.spillRun(column);
+		this.buffers.set(column, null);
+		merge(columnRuns, file, statistics);
+		for (Path run : columnRuns) {
+			Files.deleteIfExists(run);
+		}
+		columnRuns.clear();
+	}
+
+	private void spillRun(int column) throws IOException {
+		TreeSet<String> buffer = this.buffers.get(column);
+		if (buffer.isEmpty()) {
+			return;
+		}
+		Path run = this.directory.resolve(column + "." + this.runs.get(column).size() + ".run");
+		write(buffer, run, null);
+		this.runs.get(column).add(run);
+		buffer.clear();
+	}
+
+	private static void write(TreeSet<String> values, Path file, ColumnStatistics statistics) throws IOException {
+		try (SortedColumnWriter writer = new SortedColumnWriter(file)) {
+			for (String value : values) {
+				writer.write(value);
+				if (statistics != null) {
+					statistics.addDistinctValue(value);
+				}
+			}
+		}
+	}
+
+	private static void merge(List<Path> runs, Path file, ColumnStatistics statistics) throws IOException {
+		PriorityQueue<SortedColumnReader> queue = new PriorityQueue<SortedColumnReader>(runs.size(), new Comparator<SortedColumnReader>() {
+			@Override
+			public int compare(SortedColumnReader a, SortedColumnReader b) {
+				return a.current().compareTo(b.current());
+			}
+		});
+		List<SortedColumnReader> readers = new ArrayList<SortedColumnReader>(runs.size());
+		try (SortedColumnWriter writer = new SortedColumnWriter(file)) {
+			for (Path run : runs) {
+				SortedColumnReader reader = new SortedColumnReader(run);
+				readers.add(reader);
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+			String previous = null;
+			while (!queue.isEmpty()) {
+				SortedColumnReader reader = queue.poll();
+				if (!reader.current().equals(previous)) {
+					previous = reader.current();
+					writer.write(previous);
+					if (statistics != null) {
+						statistics.addDistinctValue(previous);
+					}
+				}
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+		} finally {
+			for (SortedColumnReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,335 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.metanome.algorithm_integration.AlgorithmExecutionException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
+
+/**
+ * Level-wise discovery of n-ary inclusion dependencies (MIND). The candidates
+ * of arity k are generated from the valid inclusion dependencies of arity
+ * k - 1 (apriori-gen): two of them are joined if they only differ in their
+ * last column pair, and the result is only kept if all its projections to
+ * k - 1 column pairs are valid. A candidate is validated by a merge of the
+ * sorted, distinct value tuples of its dependent and referenced columns,
+ * which are written to files by reading each involved table once per level.
+ * The tuple files of a level are deleted afterwards: the next level projects
+ * to other column lists, so it cannot reuse them and reads the tables again.
+ * <p>
+ * Nulls are treated the same at every arity, including the unary level:
+ * tuples containing a null value are ignored (as SQL's MATCH SIMPLE does for
+ * foreign keys), so dependent columns without any complete tuple are included
+ * in every referenced column list.
+ */
+public class Mind {
+
+	private final RelationalInputGenerator[] generators;
+	private final Path directory;
+	private final int maxValuesInMemory;
+
+	/**
+	 * @param generators the input of each table
+	 * @param directory the directory for the tuple files
+	 * @param maxValuesInMemory the number of tuples per table to sort in memory before spilling runs
+	 */
+	public Mind(RelationalInputGenerator[] generators, Path directory, int maxValuesInMemory) {
+		this.generators = generators;
+		this.directory = directory;
+		this.maxValuesInMemory = maxValuesInMemory;
+	}
+
+	/**
+	 * Joins the valid inclusion dependencies of one level to the candidates
+	 * of the next level.
+	 * @param valid the valid inclusion dependencies of arity k - 1
+	 * @return the candidates of arity k whose projections are all valid
+	 */
+	public static List<Candidate> generateCandidates(List<Candidate> valid) {
+		// group by tables and all but the last column pair
+		Map<Candidate, List<Candidate>> groups = new LinkedHashMap<Candidate, List<Candidate>>();
+		for (Candidate ind : valid) {
+			Candidate prefix = ind.withoutColumnPair(ind.getArity() - 1);
+			List<Candidate> group = groups.get(prefix);
+			if (group == null) {
+				group = new ArrayList<Candidate>();
+				groups.put(prefix, group);
+			}
+			group.add(ind);
+		}
+
+		Set<Candidate> validSet = new HashSet<Candidate>(valid);
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		for (List<Candidate> group : groups.values()) {
+			for (int i = 0; i < group.size(); i++) {
+				for (int j = i + 1; j < group.size(); j++) {
+					Candidate candidate = join(group.get(i), group.get(j));
+					if (candidate != null && allProjectionsValid(candidate, validSet)) {
+						candidates.add(candidate);
+					}
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * @param candidates the candidates of one level
+	 * @return the valid candidates, in the given order
+	 * @throws AlgorithmExecutionException if a table cannot be read or the
+	 * 	tuple files cannot be written
+	 */
+	public List<Candidate> validate(List<Candidate> candidates) throws AlgorithmExecutionException {
+		// the distinct column lists to project each table to, with the index of their tuple file
+		Map<Integer, Map<List<Integer>, Integer>> projections = new LinkedHashMap<Integer, Map<List<Integer>, Integer>>();
+		for (Candidate candidate : candidates) {
+			addProjection(projections, candidate.dependentTable, candidate.dependentColumns);
+			addProjection(projections, candidate.referencedTable, candidate.referencedColumns);
+		}
+
+		List<Candidate> valid = new ArrayList<Candidate>();
+		try {
+			Path levelDirectory = Files.createTempDirectory(this.directory, "level");
+			try {
+				for (Map.Entry<Integer, Map<List<Integer>, Integer>> table : projections.entrySet()) {
+					this.writeTuples(table.getKey(), table.getValue(), levelDirectory);
+				}
+				for (Candidate candidate : candidates) {
+					Path dependentFile = tupleFile(levelDirectory, candidate.dependentTable,
+							projections.get(candidate.dependentTable).get(toList(candidate.dependentColumns)));
+					Path referencedFile = tupleFile(levelDirectory, candidate.referencedTable,
+							projections.get(candidate.referencedTable).get(toList(candidate.referencedColumns)));
+					if (isIncluded(dependentFile, referencedFile)) {
+						valid.add(candidate);
+					}
+				}
+			} finally {
+				deleteRecursively(levelDirectory);
+			}
+		} catch (IOException e) {
+			throw new AlgorithmExecutionException("Could not validate n-ary inclusion dependencies", e);
+		}
+		return valid;
+	}
+
+	/**
+	 * Reads a table and writes the sorted distinct tuples of each projection to its file.
+	 */
+	private void writeTuples(int table, Map<List<Integer>, Integer> projections, Path levelDirectory)
+			throws AlgorithmExecutionException, IOException {
+		Path tableDirectory = Files.createDirectory(levelDirectory.resolve(String.valueOf(table)));
+		List<int[]> columnLists = new ArrayList<int[]>(projections.size());
+		for (List<Integer> columns : projections.keySet()) {
+			int[] columnList = new int[columns.size()];
+			for (int i = 0; i < columnList.length; i++) {
+				columnList[i] = columns.get(i);
+			}
+			columnLists.add(columnList);
+		}
+
+		ExternalColumnSorter sorter = new ExternalColumnSorter(tableDirectory, columnLists.size(), this.maxValuesInMemory);
+		RelationalInput input = this.generators[table].generateNewCopy();
+		StringBuilder tuple = new StringBuilder();
+		while (input.hasNext()) {
+			List<String> row = input.next();
+			projections: for (int projection = 0; projection < columnLists.size(); projection++) {
+				// length-prefixed values, so different tuples never share an encoding
+				tuple.setLength(0);
+				for (int column : columnLists.get(projection)) {
+					String value = column < row.size() ? row.get(column) : null;
+					if (value == null) {
+						continue projections;
+					}
+					tuple.append(value.length()).append(':').append(value);
+				}
+				sorter.add(projection, tuple.toString());
+			}
+		}
+		for (int projection = 0; projection < columnLists.size(); projection++) {
+			sorter.finish(projection, tupleFile(levelDirectory, table, projection), null);
+		}
+	}
+
+	/**
+	 * @return true if all tuples of the dependent file are in the referenced file
+	 */
+	private static boolean isIncluded(Path dependentFile, Path referencedFile) throws IOException {
+		try (SortedColumnReader dependent = new SortedColumnReader(dependentFile);
+				SortedColumnReader referenced = new SortedColumnReader(referencedFile)) {
+			if (!dependent.next()) {
+				// no complete tuple, nothing to refute
+				return true;
+			}
+			do {
+				int comparison = -1;
+				while (referenced.next() && (comparison = referenced.current().compareTo(dependent.current())) < 0) {
+					// skip referenced tuples that are not in the dependent file
+				}
+				if (comparison != 0) {
+					return false;
+				}
+			} while (dependent.next());
+			return true;
+		}
+	}
+
+	private static Candidate join(Candidate first, Candidate second) {
+		int last = first.getArity() - 1;
+		// the dependent columns are ascending, so the smaller last column comes first
+		if (first.dependentColumns[last] > second.dependentColumns[last]) {
+			Candidate swap = first;
+			first = second;
+			second = swap;
+		}
+		int dependentFirst = first.dependentColumns[last];
+		int dependentSecond = second.dependentColumns[last];
+		int referencedFirst = first.referencedColumns[last];
+		int referencedSecond = second.referencedColumns[last];
+		if (dependentFirst == dependentSecond || referencedFirst == referencedSecond) {
+			return null;
+		}
+		// within one table, the dependent and referenced columns must be disjoint
+		if (first.dependentTable == first.referencedTable
+				&& (dependentSecond == referencedFirst || dependentFirst == referencedSecond)) {
+			return null;
+		}
+
+		int[] dependentColumns = Arrays.copyOf(first.dependentColumns, last + 2);
+		int[] referencedColumns = Arrays.copyOf(first.referencedColumns, last + 2);
+		dependentColumns[last + 1] = dependentSecond;
+		referencedColumns[last + 1] = referencedSecond;
+		return new Candidate(first.dependentTable, dependentColumns, first.referencedTable, referencedColumns);
+	}
+
+	private static boolean allProjectionsValid(Candidate candidate, Set<Candidate> valid) {
+		// the projections without one of the last two column pairs are the joined ones
+		for (int i = 0; i < candidate.getArity() - 2; i++) {
+			if (!valid.contains(candidate.withoutColumnPair(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void addProjection(Map<Integer, Map<List<Integer>, Integer>> projections, int table, int[] columns) {
+		Map<List<Integer>, Integer> tableProjections = projections.get(table);
+		if (tableProjections == null) {
+			tableProjections = new LinkedHashMap<List<Integer>, Integer>();
+			projections.put(table, tableProjections);
+		}
+		List<Integer> columnList = toList(columns);
+		if (!tableProjections.containsKey(columnList)) {
+			tableProjections.put(columnList, tableProjections.size());
+		}
+	}
+
+	private static List<Integer> toList(int[] columns) {
+		List<Integer> list = new ArrayList<Integer>(columns.length);
+		for (int column : columns) {
+			list.add(column);
+		}
+		return list;
+	}
+
+	private static Path tupleFile(Path levelDirectory, int table, int projection) {
+		return levelDirectory.resolve(String.valueOf(table)).resolve(projection + ".tuples");
+	}
+
+	private static void deleteRecursively(Path directory) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+			for (Path entry : entries) {
+				files.add(entry);
+			}
+		}
+		for (Path file : files) {
+			if (Files.isDirectory(file)) {
+				deleteRecursively(file);
+			} else {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * An inclusion dependency (candidate) between a list of columns of the
+	 * dependent table and a list of columns of the referenced table, both
+	 * given as column indexes. The dependent columns are ascending, the i-th
+	 * dependent column refers to the i-th referenced column.
+	 */
+	public static class Candidate {
+		private final int dependentTable;
+		private final int[] dependentColumns;
+		private final int referencedTable;
+		private final int[] referencedColumns;
+
+		public Candidate(int dependentTable, int[] dependentColumns, int referencedTable, int[] referencedColumns) {
+			this.dependentTable = dependentTable;
+			this.dependentColumns = dependentColumns;
+			this.referencedTable = referencedTable;
+			this.referencedColumns = referencedColumns;
+		}
+
+		public int getArity() {
+			return this.dependentColumns.length;
+		}
+
+		public int getDependentTable() {
+			return this.dependentTable;
+		}
+
+		public int[] getDependentColumns() {
+			return this.dependentColumns;
+		}
+
+		public int getReferencedTable() {
+			return this.referencedTable;
+		}
+
+		public int[] getReferencedColumns() {
+			return this.referencedColumns;
+		}
+
+		private Candidate withoutColumnPair(int index) {
+			int[] dependent = new int[this.dependentColumns.length - 1];
+			int[] referenced = new int[this.referencedColumns.length - 1];
+			for (int i = 0, j = 0; i < this.dependentColumns.length; i++) {
+				if (i != index) {
+					dependent[j] = this.dependentColumns[i];
+					referenced[j] = this.referencedColumns[i];
+					j++;
+				}
+			}
+			return new Candidate(this.dependentTable, dependent, this.referencedTable, referenced);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * (31 * this.dependentTable + this.referencedTable)
+					+ Arrays.hashCode(this.dependentColumns)) + Arrays.hashCode(this.referencedColumns);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Candidate)) {
+				return false;
+			}
+			Candidate other = (Candidate) obj;
+			return this.dependentTable == other.dependentTable && this.referencedTable == other.referencedTable
+					&& Arrays.equals(this.dependentColumns, other.dependentColumns)
+					&& Arrays.equals(this.referencedColumns, other.referencedColumns);
+		}
+	}
+
+}
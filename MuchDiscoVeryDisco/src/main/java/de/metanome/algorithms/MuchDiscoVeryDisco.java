@@ -17,27 +17,38 @@
 package de.metanome.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
 import de.metanome.algorithm_integration.algorithm_types.FileInputParameterAlgorithm;
 import de.metanome.algorithm_integration.algorithm_types.InclusionDependencyAlgorithm;
+import de.metanome.algorithm_integration.algorithm_types.StringParameterAlgorithm;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirementFileInput;
+import de.metanome.algorithm_integration.configuration.ConfigurationRequirementString;
 import de.metanome.algorithm_integration.input.FileInputGenerator;
 import de.metanome.algorithm_integration.result_receiver.InclusionDependencyResultReceiver;
 
 public class MuchDiscoVeryDisco extends MuchDiscoVeryDiscoAlgorithm
-implements InclusionDependencyAlgorithm, FileInputParameterAlgorithm {
+implements InclusionDependencyAlgorithm, FileInputParameterAlgorithm, StringParameterAlgorithm {
 
 	public enum Identifier {
-		INPUT_GENERATOR
+		INPUT_GENERATOR, ENGINE, MAX_ARITY, THREADS, SPILL_DIRECTORY, MAX_VALUES_IN_MEMORY, BLOOM_FILTER_BITS, BLOOM_FILTER_FPP, ASYNC_RESULTS
 	};
 
 	@Override
 	public ArrayList<ConfigurationRequirement> getConfigurationRequirements() {
 		ArrayList<ConfigurationRequirement> conf = new ArrayList<>();
 		conf.add(new ConfigurationRequirementFileInput(MuchDiscoVeryDisco.Identifier.INPUT_GENERATOR.name(), ConfigurationRequirement.ARBITRARY_NUMBER_OF_VALUES)); // For IND discovery, the number of inputs is arbitrary
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.ENGINE.name())); // SPIDER (sorted files on disk) or DICTIONARY (sorted value ids in memory)
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.MAX_ARITY.name())); // maximum number of columns per side of an IND, 1 = unary only
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.THREADS.name())); // number of tables read at the same time, 1 = sequential
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.SPILL_DIRECTORY.name())); // sorted value files are kept here and reused by later runs
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.MAX_VALUES_IN_MEMORY.name())); // values per table sorted in memory before spilling
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.BLOOM_FILTER_BITS.name())); // maximum Bloom filter size per column in bits, 0 = disabled
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.BLOOM_FILTER_FPP.name())); // targeted false positive probability of the Bloom filters, sizes them for the column with the most distinct values
+		conf.add(new ConfigurationRequirementString(MuchDiscoVeryDisco.Identifier.ASYNC_RESULTS.name())); // true = pass results to the receiver in batches on a writer thread
 		return conf;
 	}
 
@@ -60,6 +71,66 @@ implements InclusionDependencyAlgorithm, FileInputParameterAlgorithm {
 		}
 	}
 
+	@Override
+	public void setStringConfigurationValue(String identifier, String... values) throws AlgorithmConfigurationException {
+		if (Identifier.ENGINE.name().equals(identifier)) {
+			try {
+				this.engine = Engine.valueOf(values[0].trim().toUpperCase());
+			} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+				throw new AlgorithmConfigurationException("Expected one of " + Arrays.toString(Engine.values()) + " for " + identifier);
+			}
+		} else if (Identifier.MAX_ARITY.name().equals(identifier)) {
+			this.maxArity = parseInt(identifier, 1, values);
+		} else if (Identifier.THREADS.name().equals(identifier)) {
+			this.numberOfThreads = parseInt(identifier, 1, values);
+		} else if (Identifier.SPILL_DIRECTORY.name().equals(identifier)) {
+			this.spillDirectory = values.length == 0 || values[0].trim().isEmpty() ? null : values[0].trim();
+		} else if (Identifier.MAX_VALUES_IN_MEMORY.name().equals(identifier)) {
+			this.maxValuesInMemory = parseInt(identifier, 1, values);
+		} else if (Identifier.BLOOM_FILTER_BITS.name().equals(identifier)) {
+			this.bloomFilterBits = parseInt(identifier, 0, values);
+		} else if (Identifier.BLOOM_FILTER_FPP.name().equals(identifier)) {
+			this.bloomFilterFalsePositiveProbability = parseProbability(identifier, values);
+		} else if (Identifier.ASYNC_RESULTS.name().equals(identifier)) {
+			this.asyncResults = parseBoolean(identifier, values);
+		} else {
+			throw new AlgorithmConfigurationException("Unknown configuration identifier: " + identifier);
+		}
+	}
+
+	private static boolean parseBoolean(String identifier, String... values) throws AlgorithmConfigurationException {
+		if (values.length > 0) {
+			String value = values[0].trim();
+			if ("true".equalsIgnoreCase(value))
+				return true;
+			if ("false".equalsIgnoreCase(value))
+				return false;
+		}
+		throw new AlgorithmConfigurationException("Expected true or false for " + identifier);
+	}
+
+	private static int parseInt(String identifier, int minimum, String... values) throws AlgorithmConfigurationException {
+		try {
+			int value = Integer.parseInt(values[0].trim());
+			if (value >= minimum)
+				return value;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			// handled below
+		}
+		throw new AlgorithmConfigurationException("Expected a number >= " + minimum + " for " + identifier);
+	}
+
+	private static double parseProbability(String identifier, String... values) throws AlgorithmConfigurationException {
+		try {
+			double value = Double.parseDouble(values[0].trim());
+			if (value > 0 && value < 1)
+				return value;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			// handled below
+		}
+		throw new AlgorithmConfigurationException("Expected a probability in (0, 1) for " + identifier);
+	}
+
 	@Override
 	public void setResultReceiver(InclusionDependencyResultReceiver resultReceiver) {
 		this.resultReceiver = resultReceiver;
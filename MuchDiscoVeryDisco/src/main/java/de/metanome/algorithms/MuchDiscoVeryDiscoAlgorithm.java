@@ -1,15 +1,26 @@
 package de.metanome.algorithms;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import de.metanome.algorithm_integration.AlgorithmExecutionException;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.input.FileInputGenerator;
 import de.metanome.algorithm_integration.input.RelationalInput;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
@@ -18,132 +29,470 @@ import de.metanome.algorithm_integration.results.InclusionDependency;
 
 public class MuchDiscoVeryDiscoAlgorithm {
 
+	/**
+	 * How the unary inclusion dependencies are validated.
+	 */
+	public enum Engine {
+		// sorted value files on disk, merged in one pass; for inputs of any size
+		SPIDER,
+		// sorted value ids of a global dictionary in memory; for inputs that fit on the heap
+		DICTIONARY
+	}
+
 	// if set to true, trivial inclusion dependencies (each column included in itself) will be returned
 	private final static boolean RETURN_TRIVIAL = false;
 	
 	protected RelationalInputGenerator inputGenerator[] = null;
 	protected InclusionDependencyResultReceiver resultReceiver = null;
 	protected String[] tableNames = null;
+	protected Engine engine = Engine.SPIDER;
+	// number of tables read at the same time, 1 = sequential
+	protected int numberOfThreads = 1;
+	// maximum number of columns on each side of the reported inclusion dependencies, 1 = unary only
+	protected int maxArity = 1;
+	// directory for the sorted value files, reused by later runs; null = temporary directory
+	protected String spillDirectory = null;
+	// number of distinct values per table that are sorted in memory before runs are spilled (each thread reads one table)
+	protected int maxValuesInMemory = 1000000;
+	// maximum size of the Bloom filter of each column in bits; 0 = no Bloom filters
+	protected int bloomFilterBits = 1 << 20;
+	// targeted false positive probability of the Bloom filters, determines the number of hash functions and, with the
+	// largest number of distinct values of a column, the size of the filters; all filters have the same size, so they
+	// can be compared, and if that would exceed the maximum size, they get the maximum size and a higher probability
+	protected double bloomFilterFalsePositiveProbability = 0.01;
+	// if set to true, results are passed to the result receiver in batches by a separate thread
+	protected boolean asyncResults = false;
+	
+	// receiver the results are reported to during execution, the result receiver or its asynchronous wrapper
+	private InclusionDependencyResultReceiver receiver = null;
+	// identifier of each column by table and column index, created once per column
+	private ColumnIdentifier[][] identifiers = null;
+	
+	// number of candidates refuted before the exact validation
+	private int prunedByStatistics = 0;
+	private int prunedByBloomFilters = 0;
 
 	public void execute() throws AlgorithmExecutionException {
-		/*
-		 * read columns of tables (simple: in main memory)
-		 */
-		Map<String, Map<String, Set<String>>> tableColumns 
-			= new LinkedHashMap<String, Map<String, Set<String>>>();							// LinkedHashMap: preserve key order
+		// temporary files are removed afterwards, files in a spill directory are kept for reuse
+		boolean temporary = this.spillDirectory == null;
+		Path directory;
+		try {
+			if (temporary) {
+				directory = Files.createTempDirectory("muchdiscoverydisco");
+			} else {
+				directory = Files.createDirectories(Paths.get(this.spillDirectory));
+			}
+		} catch (IOException e) {
+			throw new AlgorithmExecutionException("Could not create spill directory", e);
+		}
 		
-		for (int tableIndex = 0; tableIndex < inputGenerator.length; tableIndex++) {
-			// prepare to read next file (= table)
-			RelationalInputGenerator generator = this.inputGenerator[tableIndex];
+		this.prunedByStatistics = 0;
+		this.prunedByBloomFilters = 0;
+		AsyncInclusionDependencyReceiver asyncReceiver = this.asyncResults
+				? new AsyncInclusionDependencyReceiver(this.resultReceiver)
+				: null;
+		this.receiver = asyncReceiver != null ? asyncReceiver : this.resultReceiver;
+		try {
+			/*
+			 * read columns of tables, write their sorted distinct values to files
+			 * (or reuse the files of an earlier run on the same input);
+			 * the dictionary engine encodes the values in memory instead
+			 */
+			ValueDictionary dictionary = this.engine == Engine.DICTIONARY ? new ValueDictionary() : null;
+			List<Column> columns = this.readTables(directory, dictionary);
+			this.identifiers = new ColumnIdentifier[this.inputGenerator.length][];
+			for (int i = 0, tableIndex = 0; tableIndex < this.inputGenerator.length; tableIndex++) {
+				List<ColumnIdentifier> tableIdentifiers = new ArrayList<ColumnIdentifier>();
+				for (; i < columns.size() && columns.get(i).tableIndex == tableIndex; i++) {
+					tableIdentifiers.add(columns.get(i).identifier);
+				}
+				this.identifiers[tableIndex] = tableIdentifiers.toArray(new ColumnIdentifier[tableIdentifiers.size()]);
+			}
 			
-			// read column names (= first row)
-			RelationalInput input = generator.generateNewCopy();
-			List<String> row;
-			if (!input.hasNext()) continue;														// skip empty files
-			// prepare sets for each column
-			Map<String, Set<String>> columns 
-				= new LinkedHashMap<String, Set<String>>();										// LinkedHashMap: preserve key order
-			List<String> columnKeys = new ArrayList<String>();
+			/*
+			 * search for unary inclusion dependencies (sort-merge: one pass over all files,
+			 * or over the sorted dictionary ids of all columns)
+			 */
+			// initially, each column may be included in any other column
+			BitSet[] candidates = new BitSet[columns.size()];
+			for (int dependent = 0; dependent < columns.size(); dependent++) {
+				candidates[dependent] = new BitSet(columns.size());
+				candidates[dependent].set(0, columns.size());
+				candidates[dependent].clear(dependent);		// same column of the same relation => trivial case, no need to check
+			}
 			
-			// read data
-			boolean firstRun = true;
-			while (input.hasNext()) {
-				// read next row
-				row = input.next();
-				if (firstRun) {
-					for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
-						columns.put(String.valueOf(columnIndex + 1), new TreeSet<String>());	// TreeSet: natural ordering, distinctness
+			if (dictionary == null) {
+				// drop candidates that the column statistics or Bloom filters rule out (no value comparisons)
+				BloomFilter[] filters = null;
+				if (this.bloomFilterBits > 0) {
+					try {
+						filters = this.readFilters(columns);
+					} catch (IOException e) {
+						throw new AlgorithmExecutionException("Could not read sorted column values", e);
+					}
+				}
+				for (int dependent = 0; dependent < columns.size(); dependent++) {
+					Column dependentColumn = columns.get(dependent);
+					for (int referenced = candidates[dependent].nextSetBit(0); referenced >= 0; referenced = candidates[dependent].nextSetBit(referenced + 1)) {
+						Column referencedColumn = columns.get(referenced);
+						if (!dependentColumn.statistics.canBeIncludedIn(referencedColumn.statistics)) {
+							candidates[dependent].clear(referenced);
+							this.prunedByStatistics++;
+						} else if (filters != null && !filters[dependent].mayBeIncludedIn(filters[referenced])) {
+							candidates[dependent].clear(referenced);
+							this.prunedByBloomFilters++;
+						}
 					}
-					// get column key set (= column names) (LinkedHashMap: sorted)
-			        columnKeys.addAll(columns.keySet());
-			        
-			        firstRun = false;
 				}
 				
-				// add data to columns (TreeSet: sorted / distinct)
-				for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
-					try {
-						if (row.get(columnIndex) != null) {				// ignore null values
-							columns.get(columnKeys.get(columnIndex)).add(row.get(columnIndex));
+				List<Path> columnFiles = new ArrayList<Path>(columns.size());
+				for (Column column : columns) {
+					columnFiles.add(column.file);
+				}
+				try {
+					new Spider(columnFiles).validate(candidates);
+				} catch (IOException e) {
+					throw new AlgorithmExecutionException("Could not read sorted column values", e);
+				}
+			} else {
+				List<int[]> valueIds = new ArrayList<int[]>(columns.size());
+				for (Column column : columns) {
+					valueIds.add(column.valueIds);
+				}
+				ValueDictionary.validate(valueIds, candidates);
+			}
+			
+			// report in the order of the dependent and referenced columns
+			List<Mind.Candidate> unary = new ArrayList<Mind.Candidate>();
+			for (int dependent = 0; dependent < columns.size(); dependent++) {
+				for (int referenced = 0; referenced < columns.size(); referenced++) {
+					if (dependent == referenced) {
+						if (MuchDiscoVeryDiscoAlgorithm.RETURN_TRIVIAL) {
+							// report trivial case
+							this.report(columns.get(dependent), columns.get(referenced));
 						}
-					} catch (ArrayIndexOutOfBoundsException e) {
-						throw new AlgorithmExecutionException(
-								"unexpected row size: " + (columnIndex + 1) + " > " + columnKeys.size());
+					} else if (candidates[dependent].get(referenced)) {
+						// found inclusion dependency => report
+						this.report(columns.get(dependent), columns.get(referenced));
+						unary.add(new Mind.Candidate(
+								columns.get(dependent).tableIndex, new int[] { columns.get(dependent).columnIndex },
+								columns.get(referenced).tableIndex, new int[] { columns.get(referenced).columnIndex }));
 					}
 				}
 			}
 			
-			// add to list of table data
-			String tableName = this.tableNames[tableIndex];
-			tableColumns.put(tableName, columns);
+			/*
+			 * search for n-ary inclusion dependencies level-wise, starting from the unary ones
+			 */
+			Mind mind = new Mind(this.inputGenerator, directory, this.maxValuesInMemory);
+			List<Mind.Candidate> valid = unary;
+			for (int arity = 2; arity <= this.maxArity && !valid.isEmpty(); arity++) {
+				valid = mind.validate(Mind.generateCandidates(valid));
+				for (Mind.Candidate ind : valid) {
+					this.report(ind);
+				}
+			}
+			
+			if (asyncReceiver != null) {
+				// forward the last results, fails if the result receiver failed
+				asyncReceiver.close();
+			}
+		} finally {
+			if (asyncReceiver != null) {
+				asyncReceiver.closeQuietly();
+			}
+			this.receiver = null;
+			this.identifiers = null;
+			if (temporary) {
+				deleteRecursively(directory);
+			}
+		}
+	}
+	
+	/**
+	 * Reads all tables, several at once if more than one thread is configured.
+	 * @param dictionary the dictionary to encode the values with, null for value files
+	 * @return the columns of all tables, in the order of the tables
+	 */
+	private List<Column> readTables(final Path directory, final ValueDictionary dictionary) throws AlgorithmExecutionException {
+		List<Column> columns = new ArrayList<Column>();
+		if (this.numberOfThreads <= 1 || this.inputGenerator.length <= 1) {
+			for (int tableIndex = 0; tableIndex < this.inputGenerator.length; tableIndex++) {
+				columns.addAll(dictionary == null
+						? this.readTable(tableIndex, directory)
+						: this.encodeTable(tableIndex, dictionary));
+			}
+			return columns;
 		}
-		// get table key set (= table names) (LinkedHashMap: sorted)
-		String[] tableKeys = new String[tableColumns.keySet().size()];
-		tableColumns.keySet().toArray(tableKeys);
 		
-		/*
-		 * search for inclusion dependencies (simple: brute force)
-		 */
-		for (int dependentTableIndex = 0; dependentTableIndex < tableKeys.length; dependentTableIndex++) {
-			// get next table
-			String dependentTable = tableKeys[dependentTableIndex];
-			Map<String, Set<String>> dependentTableColumns = tableColumns.get(dependentTable);
-			String[] dependentTableColumnsKeys = new String[dependentTableColumns.keySet().size()];
-			dependentTableColumns.keySet().toArray(dependentTableColumnsKeys);
-			for (int dependentColumnIndex = 0; dependentColumnIndex < dependentTableColumnsKeys.length; dependentColumnIndex++) {
-				// get next dependent column
-				String dependentColumn = dependentTableColumnsKeys[dependentColumnIndex];
-				Set<String> dependentColumnSet = dependentTableColumns.get(dependentColumn);
-				
-				// try each candidate (= any column of any relation)
-				for (int referencedTableIndex = 0; referencedTableIndex < tableKeys.length; referencedTableIndex++) {
-					// get next referenced table
-					String referencedTable = tableKeys[referencedTableIndex];
-					Map<String, Set<String>> referencedTableColumns = tableColumns.get(referencedTable);
-					String[] referencedTableColumnsKeys = new String[referencedTableColumns.keySet().size()];
-					referencedTableColumns.keySet().toArray(referencedTableColumnsKeys);
-					
-					for (int referencedColumnIndex = 0; referencedColumnIndex < referencedTableColumnsKeys.length; referencedColumnIndex++) {
-						// get next referenced column
-						String referencedColumn = referencedTableColumnsKeys[referencedColumnIndex];
-						Set<String> referencedColumnSet = referencedTableColumns.get(referencedColumn);
-						
-						// check identity of columns
-						if (dependentTableIndex == referencedTableIndex
-								&& dependentColumnIndex == referencedColumnIndex) {
-							// same column of the same relation => trivial case, no need to check
-							if (MuchDiscoVeryDiscoAlgorithm.RETURN_TRIVIAL) {
-								// report trivial case
-								this.report(dependentTable, dependentColumn, referencedTable, referencedColumn);
-							}
-							// skip to next column
-							continue;
-						}
-						
-						// try each candidate (= any column of any relation)
-						if (referencedColumnSet.containsAll(dependentColumnSet)) {
-							// found inclusion dependency => report
-							this.report(dependentTable, dependentColumn, referencedTable, referencedColumn);
-						}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.numberOfThreads, this.inputGenerator.length));
+		try {
+			List<Future<List<Column>>> futures = new ArrayList<Future<List<Column>>>(this.inputGenerator.length);
+			for (int tableIndex = 0; tableIndex < this.inputGenerator.length; tableIndex++) {
+				final int index = tableIndex;
+				futures.add(executor.submit(new Callable<List<Column>>() {
+					@Override
+					public List<Column> call() throws AlgorithmExecutionException {
+						return dictionary == null ? readTable(index, directory) : encodeTable(index, dictionary);
 					}
+				}));
+			}
+			// collect in table order, so column order and output match the sequential path
+			for (Future<List<Column>> future : futures) {
+				columns.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AlgorithmExecutionException("Interrupted while reading tables", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof AlgorithmExecutionException) {
+				throw (AlgorithmExecutionException) e.getCause();
+			}
+			throw new AlgorithmExecutionException("Could not read table: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return columns;
+	}
+	
+	/**
+	 * Reads the columns of a table, each with the file of its sorted distinct
+	 * values. The files are written by reading the table unless an earlier
+	 * run left complete files for the same input in the directory.
+	 */
+	private List<Column> readTable(int tableIndex, Path directory) throws AlgorithmExecutionException {
+		RelationalInputGenerator generator = this.inputGenerator[tableIndex];
+		String tableName = this.tableNames[tableIndex];
+		
+		// inputs that cannot be identified get their own directory and are always read;
+		// the table index keeps tables of the same run apart, even if they share an input
+		String fingerprint = fingerprint(generator);
+		String tableDirectory = fingerprint == null
+				? tableIndex + ".table"
+				: tableIndex + "_" + tableName.replaceAll("[^A-Za-z0-9_-]", "_") + "_" + Integer.toHexString(fingerprint.hashCode());
+		SpilledTable table = SpilledTable.open(directory, tableDirectory, fingerprint);
+		
+		if (!table.load()) {
+			try {
+				this.spillTable(generator, table);
+			} catch (IOException e) {
+				throw new AlgorithmExecutionException("Could not write sorted column values", e);
+			}
+		}
+		
+		List<Column> columns = new ArrayList<Column>(table.getNumberOfColumns());
+		for (int columnIndex = 0; columnIndex < table.getNumberOfColumns(); columnIndex++) {
+			columns.add(new Column(tableIndex, columnIndex, tableName, table.getColumnFile(columnIndex),
+					table.getStatistics(columnIndex)));
+		}
+		return columns;
+	}
+	
+	/**
+	 * Reads the columns of a table as sorted arrays of their distinct value ids.
+	 */
+	private List<Column> encodeTable(int tableIndex, ValueDictionary dictionary) throws AlgorithmExecutionException {
+		RelationalInput input = this.inputGenerator[tableIndex].generateNewCopy();
+		List<ValueDictionary.IdSet> values = new ArrayList<ValueDictionary.IdSet>();			// empty files have no columns
+		boolean first = true;
+		while (input.hasNext()) {
+			List<String> row = input.next();
+			if (first) {
+				// the first row determines the number of columns
+				for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
+					values.add(new ValueDictionary.IdSet());
+				}
+				first = false;
+			}
+			if (row.size() > values.size()) {
+				throw new AlgorithmExecutionException(
+						"unexpected row size: " + row.size() + " > " + values.size());
+			}
+			for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
+				if (row.get(columnIndex) != null) {				// ignore null values
+					values.get(columnIndex).add(dictionary.getId(row.get(columnIndex)));
+				}
+			}
+		}
+		
+		List<Column> columns = new ArrayList<Column>(values.size());
+		for (int columnIndex = 0; columnIndex < values.size(); columnIndex++) {
+			columns.add(new Column(tableIndex, columnIndex, this.tableNames[tableIndex],
+					values.get(columnIndex).toArray()));
+		}
+		return columns;
+	}
+	
+	/**
+	 * Reads all rows of a table and writes the sorted distinct values of each
+	 * of its columns to a file, sorting externally in bounded memory.
+	 */
+	private void spillTable(RelationalInputGenerator generator, SpilledTable table)
+			throws AlgorithmExecutionException, IOException {
+		table.prepare();
+		
+		// prepare to read next file (= table)
+		RelationalInput input = generator.generateNewCopy();
+		List<String> row;
+		ExternalColumnSorter sorter = null;
+		List<ColumnStatistics> statistics = new ArrayList<ColumnStatistics>();		// empty files have no columns
+		
+		// read data
+		while (input.hasNext()) {
+			// read next row
+			row = input.next();
+			if (sorter == null) {
+				// the first row determines the number of columns
+				for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
+					statistics.add(new ColumnStatistics());
+				}
+				sorter = new ExternalColumnSorter(table.getDirectory(), row.size(), this.maxValuesInMemory);
+			}
+			if (row.size() > statistics.size()) {
+				throw new AlgorithmExecutionException(
+						"unexpected row size: " + row.size() + " > " + statistics.size());
+			}
+			
+			// add data to columns (sorted / distinct)
+			for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
+				if (row.get(columnIndex) != null) {
+					sorter.add(columnIndex, row.get(columnIndex));
+				} else {
+					statistics.get(columnIndex).addNull();		// ignore null values, only count them
+				}
+			}
+		}
+		
+		// write the values of each column to its file (collecting the statistics), only keep the file
+		for (int columnIndex = 0; columnIndex < statistics.size(); columnIndex++) {
+			sorter.finish(columnIndex, table.getColumnFile(columnIndex), statistics.get(columnIndex));
+		}
+		table.complete(statistics);
+	}
+	
+	/**
+	 * Builds the Bloom filters of all columns from their value files. The
+	 * filters must have the same size to be compared, so all are sized for
+	 * the column with the most distinct values.
+	 */
+	private BloomFilter[] readFilters(List<Column> columns) throws IOException {
+		int maxDistinctValues = 0;
+		for (Column column : columns) {
+			maxDistinctValues = Math.max(maxDistinctValues, column.statistics.getDistinctValues());
+		}
+		int numberOfBits = Math.min(this.bloomFilterBits,
+				BloomFilter.numberOfBits(maxDistinctValues, this.bloomFilterFalsePositiveProbability));
+		int numberOfHashFunctions = BloomFilter.numberOfHashFunctions(this.bloomFilterFalsePositiveProbability);
+		
+		BloomFilter[] filters = new BloomFilter[columns.size()];
+		for (int i = 0; i < columns.size(); i++) {
+			filters[i] = new BloomFilter(numberOfBits, numberOfHashFunctions);
+			try (SortedColumnReader reader = new SortedColumnReader(columns.get(i).file)) {
+				while (reader.next()) {
+					filters[i].add(reader.current());
 				}
 			}
 		}
+		return filters;
 	}
 	
-	private void report(String dependentTable, String dependentColumn, String referencedTable, String referencedColumn) 
-			throws CouldNotReceiveResultException {
-		this.resultReceiver.receiveResult(
+	/**
+	 * @return a fingerprint of the input file (path, size, modification time)
+	 * 	or null if the input is not a file
+	 */
+	private static String fingerprint(RelationalInputGenerator generator) {
+		if (!(generator instanceof FileInputGenerator)) {
+			return null;
+		}
+		File file = ((FileInputGenerator) generator).getInputFile();
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+	}
+	
+	private static void deleteRecursively(Path directory) {
+		try {
+			Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+				
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			// temporary files only, nothing to do
+		}
+	}
+	
+	private void report(Column dependent, Column referenced) throws CouldNotReceiveResultException {
+		this.receiver.receiveResult(
+			new InclusionDependency(
+				new ColumnPermutation(dependent.identifier),
+				new ColumnPermutation(referenced.identifier)
+			)
+		);
+	}
+	
+	private void report(Mind.Candidate ind) throws CouldNotReceiveResultException {
+		this.receiver.receiveResult(
 			new InclusionDependency(
-				new ColumnPermutation(
-					new ColumnIdentifier(dependentTable, dependentColumn)),
-				new ColumnPermutation(
-					new ColumnIdentifier(referencedTable, referencedColumn))
+				this.columnPermutation(ind.getDependentTable(), ind.getDependentColumns()),
+				this.columnPermutation(ind.getReferencedTable(), ind.getReferencedColumns())
 			)
 		);
 	}
+	
+	private ColumnPermutation columnPermutation(int tableIndex, int[] columnIndexes) {
+		ColumnIdentifier[] identifiers = new ColumnIdentifier[columnIndexes.length];
+		for (int i = 0; i < columnIndexes.length; i++) {
+			identifiers[i] = this.identifiers[tableIndex][columnIndexes[i]];
+		}
+		return new ColumnPermutation(identifiers);
+	}
+	
+	/**
+	 * A column of one of the tables with its identifier for the results and
+	 * the file with its sorted distinct values, its statistics and its Bloom
+	 * filter (null if disabled); or, for the dictionary engine, its sorted
+	 * distinct value ids.
+	 */
+	private static class Column {
+		private final int tableIndex;
+		private final int columnIndex;
+		private final ColumnIdentifier identifier;
+		private final Path file;
+		private final ColumnStatistics statistics;
+		private final int[] valueIds;
+		
+		private Column(int tableIndex, int columnIndex, String tableName, Path file, ColumnStatistics statistics) {
+			this.tableIndex = tableIndex;
+			this.columnIndex = columnIndex;
+			this.identifier = new ColumnIdentifier(tableName, String.valueOf(columnIndex + 1));
+			this.file = file;
+			this.statistics = statistics;
+			this.valueIds = null;
+		}
+		
+		private Column(int tableIndex, int columnIndex, String tableName, int[] valueIds) {
+			this.tableIndex = tableIndex;
+			this.columnIndex = columnIndex;
+			this.identifier = new ColumnIdentifier(tableName, String.valueOf(columnIndex + 1));
+			this.file = null;
+			this.statistics = null;
+			this.valueIds = valueIds;
+		}
+	}
 
 	public String toString() {
-		return this.getClass().getName();
+		return this.getClass().getName()
+				+ "\r\nCandidates pruned by column statistics: " + this.prunedByStatistics
+				+ "\r\nCandidates pruned by Bloom filters: " + this.prunedByBloomFilters;
 	}
 }
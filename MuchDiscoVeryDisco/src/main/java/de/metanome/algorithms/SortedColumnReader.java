@@ -0,0 +1,54 @@
+package de.metanome.algorithms;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the values written by a {@link SortedColumnWriter} one at a time.
+ */
+public class SortedColumnReader implements Closeable {
+
+	private final DataInputStream input;
+	private String current = null;
+
+	public SortedColumnReader(Path file) throws IOException {
+		this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+	}
+
+	/**
+	 * Moves to the next value.
+	 * @return false if there is no further value
+	 * @throws IOException if the file cannot be read
+	 */
+	public boolean next() throws IOException {
+		int length;
+		try {
+			length = this.input.readInt();
+		} catch (EOFException e) {
+			this.current = null;
+			return false;
+		}
+		byte[] bytes = new byte[length];
+		this.input.readFully(bytes);
+		this.current = new String(bytes, SortedColumnWriter.CHARSET);
+		return true;
+	}
+
+	/**
+	 * @return the current value, null before the first and after the last call of {@link #next()}
+	 */
+	public String current() {
+		return this.current;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.input.close();
+	}
+
+}
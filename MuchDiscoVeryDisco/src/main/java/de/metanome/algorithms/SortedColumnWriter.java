@@ -0,0 +1,50 @@
+package de.metanome.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the sorted, distinct values of a column to a file. Each value is
+ * stored as its length followed by its UTF-8 bytes, so values may contain
+ * any character (including line breaks).
+ */
+public class SortedColumnWriter implements Closeable {
+
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final DataOutputStream output;
+	private int numberOfValues = 0;
+
+	public SortedColumnWriter(Path file) throws IOException {
+		this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+	}
+
+	/**
+	 * @param value the next value, must be greater than the previous one
+	 * @throws IOException if the value cannot be written
+	 */
+	public void write(String value) throws IOException {
+		byte[] bytes = value.getBytes(CHARSET);
+		this.output.writeInt(bytes.length);
+		this.output.write(bytes);
+		this.numberOfValues++;
+	}
+
+	/**
+	 * @return the number of values written so far
+	 */
+	public int getNumberOfValues() {
+		return this.numberOfValues;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.output.close();
+	}
+
+}
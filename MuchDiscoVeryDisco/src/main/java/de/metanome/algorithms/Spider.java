@@ -0,0 +1,163 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sort-merge validation of unary inclusion dependency candidates (SPIDER).
+ * The columns are read in parallel from their sorted value files; a priority
+ * queue always yields the columns that share the currently smallest value.
+ * Each of these (dependent) columns can only be included in columns that
+ * contain the value as well, so its candidates are intersected with this
+ * group. Only one value per column is in memory at a time.
+ * <p>
+ * At most a given number of files is open at once. With more columns, they
+ * are split into blocks of half that size and every pair of blocks is merged
+ * in a pass of its own, which refutes the candidates between the columns of
+ * the two blocks. Each file is then read once per block instead of once.
+ */
+public class Spider {
+
+	// default limit of simultaneously open value files, below common file descriptor limits
+	public static final int DEFAULT_MAX_OPEN_READERS = 256;
+
+	private final List<Path> columnFiles;
+	private final int maxOpenReaders;
+
+	/**
+	 * @param columnFiles the sorted value file of each column, indexed by column
+	 */
+	public Spider(List<Path> columnFiles) {
+		this(columnFiles, DEFAULT_MAX_OPEN_READERS);
+	}
+
+	/**
+	 * @param columnFiles the sorted value file of each column, indexed by column
+	 * @param maxOpenReaders the maximum number of value files open at once, at least 2
+	 */
+	public Spider(List<Path> columnFiles, int maxOpenReaders) {
+		if (maxOpenReaders < 2) {
+			throw new IllegalArgumentException("At least two readers are needed: " + maxOpenReaders);
+		}
+		this.columnFiles = columnFiles;
+		this.maxOpenReaders = maxOpenReaders;
+	}
+
+	/**
+	 * Refutes candidates until only valid inclusion dependencies are left.
+	 * @param candidates for each dependent column the referenced columns it
+	 * 	may be included in; refuted candidates are removed from the sets
+	 * @throws IOException if a value file cannot be read
+	 */
+	public void validate(BitSet[] candidates) throws IOException {
+		int numberOfColumns = this.columnFiles.size();
+		if (numberOfColumns <= this.maxOpenReaders) {
+			BitSet columns = new BitSet(numberOfColumns);
+			columns.set(0, numberOfColumns);
+			this.validate(candidates, columns);
+			return;
+		}
+
+		int blockSize = this.maxOpenReaders / 2;
+		for (int first = 0; first < numberOfColumns; first += blockSize) {
+			for (int second = first + blockSize; second < numberOfColumns; second += blockSize) {
+				BitSet columns = new BitSet(numberOfColumns);
+				columns.set(first, first + blockSize);
+				columns.set(second, Math.min(second + blockSize, numberOfColumns));
+				this.validate(candidates, columns);
+			}
+		}
+	}
+
+	/**
+	 * Merges the value files of the given columns and refutes the candidates
+	 * among them; candidates that reference other columns are left as they are.
+	 * @param candidates the candidates of all columns
+	 * @param columns the columns of this pass
+	 * @throws IOException if a value file cannot be read
+	 */
+	private void validate(BitSet[] candidates, BitSet columns) throws IOException {
+		// number of dependent columns that still have candidates within the pass
+		int openDependents = 0;
+		for (int column = columns.nextSetBit(0); column >= 0; column = columns.nextSetBit(column + 1)) {
+			if (candidates[column].intersects(columns)) {
+				openDependents++;
+			}
+		}
+		if (openDependents == 0) {
+			return;
+		}
+
+		List<Cursor> cursors = new ArrayList<Cursor>(columns.cardinality());
+		PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(Math.max(1, columns.cardinality()), new Comparator<Cursor>() {
+			@Override
+			public int compare(Cursor a, Cursor b) {
+				int result = a.reader.current().compareTo(b.reader.current());
+				return result != 0 ? result : Integer.compare(a.column, b.column);
+			}
+		});
+		try {
+			for (int column = columns.nextSetBit(0); column >= 0; column = columns.nextSetBit(column + 1)) {
+				Cursor cursor = new Cursor(column, new SortedColumnReader(this.columnFiles.get(column)));
+				cursors.add(cursor);
+				if (cursor.reader.next()) {
+					queue.add(cursor);
+				}
+			}
+
+			// referenced columns a dependent of the current group may still be included in:
+			// the group and all columns outside of the pass, which the pass cannot refute
+			BitSet allowed = new BitSet(this.columnFiles.size());
+			BitSet outside = new BitSet(this.columnFiles.size());
+			outside.set(0, this.columnFiles.size());
+			outside.andNot(columns);
+			List<Cursor> groupCursors = new ArrayList<Cursor>();
+			while (!queue.isEmpty() && openDependents > 0) {
+				// collect all columns that contain the smallest value
+				allowed.clear();
+				allowed.or(outside);
+				groupCursors.clear();
+				String value = queue.peek().reader.current();
+				while (!queue.isEmpty() && queue.peek().reader.current().equals(value)) {
+					Cursor cursor = queue.poll();
+					allowed.set(cursor.column);
+					groupCursors.add(cursor);
+				}
+
+				// dependent columns of the group are only included in columns of the group
+				for (Cursor cursor : groupCursors) {
+					BitSet referenced = candidates[cursor.column];
+					if (referenced.intersects(columns)) {
+						referenced.and(allowed);
+						if (!referenced.intersects(columns)) {
+							openDependents--;
+						}
+					}
+					if (cursor.reader.next()) {
+						queue.add(cursor);
+					}
+				}
+			}
+		} finally {
+			for (Cursor cursor : cursors) {
+				cursor.reader.close();
+			}
+		}
+	}
+
+	private static class Cursor {
+		private final int column;
+		private final SortedColumnReader reader;
+
+		private Cursor(int column, SortedColumnReader reader) {
+			this.column = column;
+			this.reader = reader;
+		}
+	}
+
+}
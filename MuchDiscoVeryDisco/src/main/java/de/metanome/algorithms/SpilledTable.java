@@ -0,0 +1,170 @@
+package de.metanome.algorithms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Directory with the sorted value files of one table's columns. A manifest
+ * is written once all files are complete; it records a fingerprint of the
+ * input (file path, size and modification time) and the statistics of the
+ * columns, so a later run on the same, unchanged input can reuse the files
+ * instead of reading the table again. The fingerprint in the manifest is
+ * compared in full; the directory name only serves to find it.
+ */
+public class SpilledTable {
+
+	private static final String MANIFEST = "table.manifest";
+	private static final String FINGERPRINT = "fingerprint";
+	private static final String NUMBER_OF_COLUMNS = "columns";
+
+	private final Path directory;
+	private final String fingerprint;
+	private final Properties manifest = new Properties();
+	private final List<ColumnStatistics> statistics = new ArrayList<ColumnStatistics>();
+
+	/**
+	 * @param directory the directory of the table
+	 * @param fingerprint identifies the input or null if it cannot be identified (never reused)
+	 */
+	public SpilledTable(Path directory, String fingerprint) {
+		this.directory = directory;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Finds the directory of a table: the one whose manifest records the same
+	 * fingerprint, otherwise the first one that does not belong to another
+	 * input. The name is tried first, then the name with a counter, so
+	 * inputs whose names collide do not overwrite each other's files.
+	 * @param parent the spill directory
+	 * @param name the directory name of the table, unique within a run
+	 * @param fingerprint identifies the input or null if it cannot be identified (never reused)
+	 * @return the table, call {@link #load()} to reuse its files
+	 */
+	public static SpilledTable open(Path parent, String name, String fingerprint) {
+		for (int i = 0; ; i++) {
+			SpilledTable table = new SpilledTable(parent.resolve(i == 0 ? name : name + "-" + i), fingerprint);
+			String stored = table.readFingerprint();
+			if (fingerprint == null || stored == null || stored.equals(fingerprint)) {
+				return table;
+			}
+		}
+	}
+
+	/**
+	 * Loads the manifest if the files of an earlier run match the input.
+	 * @return true if the files can be reused
+	 */
+	public boolean load() {
+		Path file = this.directory.resolve(MANIFEST);
+		if (this.fingerprint == null || !Files.isRegularFile(file)) {
+			return false;
+		}
+		try (InputStream input = Files.newInputStream(file)) {
+			this.manifest.load(input);
+		} catch (IOException e) {
+			return false;
+		}
+		if (!this.fingerprint.equals(this.manifest.getProperty(FINGERPRINT))) {
+			return false;
+		}
+		try {
+			this.statistics.clear();
+			int numberOfColumns = Integer.parseInt(this.manifest.getProperty(NUMBER_OF_COLUMNS));
+			for (int column = 0; column < numberOfColumns; column++) {
+				ColumnStatistics columnStatistics = ColumnStatistics.load(this.manifest, column + ".");
+				if (columnStatistics == null) {
+					return false;
+				}
+				this.statistics.add(columnStatistics);
+			}
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the fingerprint recorded in the manifest, null if there is no (readable) manifest
+	 */
+	private String readFingerprint() {
+		Path file = this.directory.resolve(MANIFEST);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try (InputStream input = Files.newInputStream(file)) {
+			properties.load(input);
+		} catch (IOException e) {
+			return null;
+		}
+		return properties.getProperty(FINGERPRINT);
+	}
+
+	/**
+	 * Creates the directory and removes the files of earlier runs.
+	 * @throws IOException if the directory cannot be prepared
+	 */
+	public void prepare() throws IOException {
+		Files.createDirectories(this.directory);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+		this.manifest.clear();
+		this.statistics.clear();
+	}
+
+	/**
+	 * Writes the manifest, the files are complete from now on.
+	 * @param statistics the statistics of each column of the table
+	 * @throws IOException if the manifest cannot be written
+	 */
+	public void complete(List<ColumnStatistics> statistics) throws IOException {
+		if (this.fingerprint != null) {
+			this.manifest.setProperty(FINGERPRINT, this.fingerprint);
+		}
+		this.manifest.setProperty(NUMBER_OF_COLUMNS, String.valueOf(statistics.size()));
+		for (int column = 0; column < statistics.size(); column++) {
+			statistics.get(column).store(this.manifest, column + ".");
+		}
+		this.statistics.clear();
+		this.statistics.addAll(statistics);
+		try (OutputStream output = Files.newOutputStream(this.directory.resolve(MANIFEST))) {
+			this.manifest.store(output, null);
+		}
+	}
+
+	public int getNumberOfColumns() {
+		return this.statistics.size();
+	}
+
+	/**
+	 * @param column the column index
+	 * @return the statistics of the column
+	 */
+	public ColumnStatistics getStatistics(int column) {
+		return this.statistics.get(column);
+	}
+
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * @param column the column index
+	 * @return the file with the sorted distinct values of the column
+	 */
+	public Path getColumnFile(int column) {
+		return this.directory.resolve(column + ".values");
+	}
+
+}
@@ -0,0 +1,171 @@
+package de.metanome.algorithms;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary shared by all tables that maps each distinct value to a dense
+ * int id. With it, the distinct values of a column become a sorted array of
+ * ids, which takes space in the number of the column's values rather than in
+ * the number of values of all tables, and inclusion is decided by merging
+ * these arrays instead of comparing strings. The dictionary is thread-safe,
+ * so tables can be encoded in parallel; ids are assigned under a lock, so
+ * they stay dense (0 to {@link #size()} - 1) even when threads race for the
+ * same new value.
+ */
+public class ValueDictionary {
+
+	private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	// guarded by this
+	private int nextId = 0;
+
+	/**
+	 * @param value a non-null value
+	 * @return the id of the value, assigned on its first occurrence
+	 */
+	public int getId(String value) {
+		Integer id = this.ids.get(value);
+		if (id == null) {
+			synchronized (this) {
+				id = this.ids.get(value);
+				if (id == null) {
+					id = this.nextId++;
+					this.ids.put(value, id);
+				}
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * @return the number of distinct values of all tables
+	 */
+	public int size() {
+		return this.ids.size();
+	}
+
+	/**
+	 * Refutes candidates until only valid inclusion dependencies are left, by
+	 * the same merge as {@link Spider}: the columns are traversed in parallel
+	 * in id order, and the candidates of each column that contains the
+	 * current id are intersected with the columns that contain it as well.
+	 * Each array is read exactly once.
+	 * @param columns the sorted distinct value ids of each column, see {@link IdSet#toArray()}
+	 * @param candidates for each dependent column the referenced columns it
+	 * 	may be included in; refuted candidates are removed from the sets
+	 */
+	public static void validate(List<int[]> columns, BitSet[] candidates) {
+		// number of dependent columns that still have candidates
+		int openDependents = 0;
+		for (BitSet referenced : candidates) {
+			if (!referenced.isEmpty()) {
+				openDependents++;
+			}
+		}
+
+		PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(Math.max(1, columns.size()), new Comparator<Cursor>() {
+			@Override
+			public int compare(Cursor a, Cursor b) {
+				int result = Integer.compare(a.current(), b.current());
+				return result != 0 ? result : Integer.compare(a.column, b.column);
+			}
+		});
+		for (int column = 0; column < columns.size(); column++) {
+			if (columns.get(column).length > 0) {
+				queue.add(new Cursor(column, columns.get(column)));
+			}
+		}
+
+		BitSet group = new BitSet(columns.size());
+		Cursor[] groupCursors = new Cursor[columns.size()];
+		while (!queue.isEmpty() && openDependents > 0) {
+			// collect all columns that contain the smallest id
+			group.clear();
+			int groupSize = 0;
+			int id = queue.peek().current();
+			while (!queue.isEmpty() && queue.peek().current() == id) {
+				Cursor cursor = queue.poll();
+				group.set(cursor.column);
+				groupCursors[groupSize++] = cursor;
+			}
+
+			// dependent columns of the group are only included in columns of the group
+			for (int i = 0; i < groupSize; i++) {
+				Cursor cursor = groupCursors[i];
+				BitSet referenced = candidates[cursor.column];
+				if (!referenced.isEmpty()) {
+					referenced.and(group);
+					if (referenced.isEmpty()) {
+						openDependents--;
+					}
+				}
+				if (++cursor.position < cursor.ids.length) {
+					queue.add(cursor);
+				}
+			}
+		}
+	}
+
+	private static class Cursor {
+		private final int column;
+		private final int[] ids;
+		private int position = 0;
+
+		private Cursor(int column, int[] ids) {
+			this.column = column;
+			this.ids = ids;
+		}
+
+		private int current() {
+			return this.ids[this.position];
+		}
+	}
+
+	/**
+	 * Collects the distinct value ids of a column. Ids are appended and the
+	 * buffer is sorted and deduplicated whenever it is full, so it grows with
+	 * the number of distinct ids, not with the number of rows.
+	 */
+	public static class IdSet {
+		private int[] ids = new int[16];
+		private int size = 0;
+
+		/**
+		 * @param id a value id of the column
+		 */
+		public void add(int id) {
+			if (this.size == this.ids.length) {
+				this.compact();
+				if (this.size > this.ids.length / 2) {
+					this.ids = Arrays.copyOf(this.ids, this.ids.length * 2);
+				}
+			}
+			this.ids[this.size++] = id;
+		}
+
+		/**
+		 * @return the distinct ids in ascending order
+		 */
+		public int[] toArray() {
+			this.compact();
+			return Arrays.copyOf(this.ids, this.size);
+		}
+
+		private void compact() {
+			Arrays.sort(this.ids, 0, this.size);
+			int distinct = 0;
+			for (int i = 0; i < this.size; i++) {
+				if (distinct == 0 || this.ids[i] != this.ids[distinct - 1]) {
+					this.ids[distinct++] = this.ids[i];
+				}
+			}
+			this.size = distinct;
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	public void testNumberOfBits() {
+		// -1000 * ln(0.01) / ln(2)^2 = 9585.06
+		assertEquals(9586, BloomFilter.numberOfBits(1000, 0.01));
+		assertEquals(0, BloomFilter.numberOfBits(0, 0.01));
+		assertEquals(Integer.MAX_VALUE, BloomFilter.numberOfBits(Integer.MAX_VALUE, 0.01));
+	}
+
+	@Test
+	public void testFalsePositiveProbabilityIsMet() {
+		double falsePositiveProbability = 0.01;
+		int numberOfValues = 10000;
+		int numberOfBits = BloomFilter.numberOfBits(numberOfValues, falsePositiveProbability);
+		int numberOfHashFunctions = BloomFilter.numberOfHashFunctions(falsePositiveProbability);
+
+		BloomFilter referenced = new BloomFilter(numberOfBits, numberOfHashFunctions);
+		for (int value = 0; value < numberOfValues; value++) {
+			referenced.add("value" + value);
+		}
+
+		int falsePositives = 0;
+		for (int value = 0; value < numberOfValues; value++) {
+			BloomFilter present = new BloomFilter(numberOfBits, numberOfHashFunctions);
+			present.add("value" + value);
+			assertTrue(present.mayBeIncludedIn(referenced));
+
+			BloomFilter missing = new BloomFilter(numberOfBits, numberOfHashFunctions);
+			missing.add("missing" + value);
+			if (missing.mayBeIncludedIn(referenced)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 2 * falsePositiveProbability * numberOfValues);
+	}
+
+}
@@ -0,0 +1,146 @@
+package de.metanome.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reference for the IND search: projects every dependent column list and
+ * every referenced column list of every pair of tables and compares them.
+ * Rows with a null in the projected columns are skipped (MATCH SIMPLE).
+ * Only for small tables.
+ */
+class BruteForceInds {
+
+	/**
+	 * @param tables the tables, each with at least one row
+	 * @param maxArity the maximum number of columns per side
+	 * @return the valid INDs, formatted like {@link #format(String, int[], String, int[])};
+	 * 	dependent columns ascending, referenced columns in any order, no trivial
+	 * 	INDs and no n-ary INDs whose sides overlap in the same table
+	 */
+	static Set<String> discover(List<CsvFile> tables, int maxArity) throws Exception {
+		List<List<List<String>>> data = new ArrayList<List<List<String>>>();
+		for (CsvFile table : tables) {
+			data.add(table.readRows());
+		}
+
+		Set<String> result = new HashSet<String>();
+		// level by level, so the projections of each candidate are known
+		for (int arity = 1; arity <= maxArity; arity++) {
+			for (int dependentTable = 0; dependentTable < tables.size(); dependentTable++) {
+				for (int referencedTable = 0; referencedTable < tables.size(); referencedTable++) {
+					String dependentName = tables.get(dependentTable).getName();
+					String referencedName = tables.get(referencedTable).getName();
+					int dependentColumns = data.get(dependentTable).get(0).size();
+					int referencedColumns = data.get(referencedTable).get(0).size();
+					for (int[] dependent : columnLists(dependentColumns, arity, false)) {
+						for (int[] referenced : columnLists(referencedColumns, arity, true)) {
+							if (dependentTable == referencedTable && overlap(dependent, referenced)) {
+								continue;
+							}
+							if (!projectionsHold(result, dependentName, dependent, referencedName, referenced)) {
+								continue;
+							}
+							if (project(data.get(referencedTable), referenced).containsAll(project(data.get(dependentTable), dependent))) {
+								result.add(format(dependentName, dependent, referencedName, referenced));
+							}
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the IND as "[t.1, t.2] [= [u.3, u.1]", with 1-based column numbers
+	 */
+	static String format(String dependentTable, int[] dependent, String referencedTable, int[] referenced) {
+		return format(dependentTable, dependent) + " [= " + format(referencedTable, referenced);
+	}
+
+	private static String format(String table, int[] columns) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < columns.length; i++) {
+			builder.append(i == 0 ? "" : ", ").append(table).append('.').append(columns[i] + 1);
+		}
+		return builder.append(']').toString();
+	}
+
+	private static boolean overlap(int[] dependent, int[] referenced) {
+		for (int a : dependent) {
+			for (int b : referenced) {
+				if (a == b) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// all INDs with one column pair less must hold; the result holds all valid INDs of the lower levels
+	private static boolean projectionsHold(Set<String> result, String dependentTable, int[] dependent,
+			String referencedTable, int[] referenced) {
+		if (dependent.length == 1) {
+			return true;
+		}
+		for (int skip = 0; skip < dependent.length; skip++) {
+			int[] dependentProjection = new int[dependent.length - 1];
+			int[] referencedProjection = new int[dependent.length - 1];
+			for (int i = 0, j = 0; i < dependent.length; i++) {
+				if (i != skip) {
+					dependentProjection[j] = dependent[i];
+					referencedProjection[j++] = referenced[i];
+				}
+			}
+			if (!result.contains(format(dependentTable, dependentProjection, referencedTable, referencedProjection))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<List<String>> project(List<List<String>> rows, int[] columns) {
+		Set<List<String>> projection = new HashSet<List<String>>();
+		for (List<String> row : rows) {
+			List<String> values = new ArrayList<String>(columns.length);
+			for (int column : columns) {
+				values.add(row.get(column));
+			}
+			if (!values.contains(null)) {
+				projection.add(values);
+			}
+		}
+		return projection;
+	}
+
+	/**
+	 * @param permutations false for ascending column lists only
+	 * @return all lists of the given length of distinct columns
+	 */
+	private static List<int[]> columnLists(int numberOfColumns, int length, boolean permutations) {
+		List<int[]> lists = new ArrayList<int[]>();
+		addColumnLists(numberOfColumns, permutations, new int[length], 0, lists);
+		return lists;
+	}
+
+	private static void addColumnLists(int numberOfColumns, boolean permutations, int[] list, int size, List<int[]> lists) {
+		if (size == list.length) {
+			lists.add(list.clone());
+			return;
+		}
+		for (int column = permutations || size == 0 ? 0 : list[size - 1] + 1; column < numberOfColumns; column++) {
+			boolean used = false;
+			for (int i = 0; i < size; i++) {
+				used |= list[i] == column;
+			}
+			if (!used) {
+				list[size] = column;
+				addColumnLists(numberOfColumns, permutations, list, size + 1, lists);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package de.metanome.algorithms;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.metanome.algorithm_integration.input.FileInputGenerator;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+/**
+ * Comma separated test file without header: every line is a row, empty
+ * fields are nulls. The file is read again for every copy.
+ */
+class CsvFile implements FileInputGenerator {
+
+	private final File file;
+
+	private CsvFile(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Writes (or overwrites) the file name.csv in the directory.
+	 */
+	static CsvFile write(Path directory, String name, String... lines) throws IOException {
+		Path path = directory.resolve(name + ".csv");
+		Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+		return new CsvFile(path.toFile());
+	}
+
+	/**
+	 * @return the rows of the file
+	 */
+	List<List<String>> readRows() throws IOException {
+		List<List<String>> rows = new ArrayList<List<String>>();
+		for (String line : Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8)) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			List<String> row = new ArrayList<String>();
+			for (String value : line.split(",", -1)) {
+				row.add(value.isEmpty() ? null : value);
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the table name, which is the file name without extension
+	 */
+	String getName() {
+		return this.file.getName().split("\\.")[0];
+	}
+
+	@Override
+	public File getInputFile() {
+		return this.file;
+	}
+
+	@Override
+	public RelationalInput generateNewCopy() throws InputGenerationException {
+		final List<List<String>> rows;
+		try {
+			rows = this.readRows();
+		} catch (IOException e) {
+			throw new InputGenerationException("Could not read " + this.file);
+		}
+		return new RelationalInput() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.next < rows.size();
+			}
+
+			@Override
+			public List<String> next() {
+				return this.hasNext() ? rows.get(this.next++) : null;
+			}
+
+			@Override
+			public int numberOfColumns() {
+				return rows.isEmpty() ? 0 : rows.get(0).size();
+			}
+
+			@Override
+			public String relationName() {
+				return getName();
+			}
+
+			@Override
+			public List<String> columnNames() {
+				List<String> names = new ArrayList<String>();
+				for (int column = 1; column <= this.numberOfColumns(); column++) {
+					names.add(String.valueOf(column));
+				}
+				return names;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,197 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.input.FileInputGenerator;
+import de.metanome.algorithm_integration.result_receiver.InclusionDependencyResultReceiver;
+import de.metanome.algorithm_integration.results.InclusionDependency;
+
+public class MuchDiscoVeryDiscoTest {
+
+	// string configurations each set of tables is checked with
+	private static final String[][] CONFIGURATIONS = {
+		{"ENGINE", "SPIDER"},
+		{"ENGINE", "DICTIONARY"},
+		// two values per table in memory => every column is sorted in runs that are merged
+		{"ENGINE", "SPIDER", "MAX_VALUES_IN_MEMORY", "2"},
+		{"ENGINE", "SPIDER", "BLOOM_FILTER_BITS", "0"},
+		// saturated filters prune nothing, but must not refute valid INDs either
+		{"ENGINE", "SPIDER", "BLOOM_FILTER_BITS", "64", "BLOOM_FILTER_FPP", "0.5"},
+		{"ENGINE", "SPIDER", "THREADS", "3", "ASYNC_RESULTS", "true"},
+		{"ENGINE", "DICTIONARY", "THREADS", "3", "MAX_VALUES_IN_MEMORY", "2"}};
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("muchdiscoverydisco_test");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.walkFileTree(this.directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+				Files.delete(directory);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	@Test
+	public void testNulls() throws Exception {
+		// MATCH SIMPLE: rows with a null in the dependent columns are skipped
+		List<CsvFile> tables = Arrays.asList(
+				CsvFile.write(this.directory, "d", "1,,a", ",2,b", "1,,c"),
+				CsvFile.write(this.directory, "e", "1,2,a", "3,4,b", "1,2,c"));
+		assertFindsInds(tables, 3);
+	}
+
+	@Test
+	public void testRandomTables() throws Exception {
+		Random random = new Random(42);
+		for (int set = 0; set < 10; set++) {
+			List<CsvFile> tables = new ArrayList<CsvFile>();
+			int numberOfTables = 2 + random.nextInt(3);
+			for (int table = 0; table < numberOfTables; table++) {
+				tables.add(CsvFile.write(this.directory, "set" + set + "_" + table,
+						randomRows(random, 2 + random.nextInt(4), 3 + random.nextInt(10))));
+			}
+			assertFindsInds(tables, 1);
+			assertFindsInds(tables, 3);
+		}
+	}
+
+	@Test
+	public void testMoreColumnsThanOpenReaders() throws Exception {
+		// more value files than Spider keeps open at once => it merges them in several passes
+		Random random = new Random(42);
+		List<CsvFile> tables = new ArrayList<CsvFile>();
+		int numberOfColumns = 0;
+		for (int table = 0; numberOfColumns <= Spider.DEFAULT_MAX_OPEN_READERS; table++) {
+			tables.add(CsvFile.write(this.directory, "wide" + table, randomRows(random, 100, 8)));
+			numberOfColumns += 100;
+		}
+		assertFindsInds(tables, 1);
+	}
+
+	@Test
+	public void testSpillDirectoryIsReused() throws Exception {
+		Path spillDirectory = Files.createDirectory(this.directory.resolve("spill"));
+		String[] configuration = {"ENGINE", "SPIDER", "SPILL_DIRECTORY", spillDirectory.toString()};
+		List<CsvFile> tables = Arrays.asList(
+				CsvFile.write(this.directory, "a", "1,x", "2,y"),
+				CsvFile.write(this.directory, "b", "1,x", "2,y", "3,z"));
+		assertEquals(expected(tables, 2), discover(tables, 2, configuration));
+		// the second run reads the value files of the first one
+		assertEquals(expected(tables, 2), discover(tables, 2, configuration));
+
+		// a changed input is read again
+		tables = Arrays.asList(tables.get(0), CsvFile.write(this.directory, "b", "1,x", "3,z"));
+		assertEquals(expected(tables, 2), discover(tables, 2, configuration));
+	}
+
+	@Test(expected = AlgorithmConfigurationException.class)
+	public void testUnparseableBooleanIsRejected() throws Exception {
+		new MuchDiscoVeryDisco().setStringConfigurationValue(MuchDiscoVeryDisco.Identifier.ASYNC_RESULTS.name(), "yes");
+	}
+
+	/**
+	 * @return rows of values from small domains (so that there are INDs), about one in ten is null
+	 */
+	private static String[] randomRows(Random random, int numberOfColumns, int numberOfRows) {
+		int[] domains = new int[numberOfColumns];
+		for (int column = 0; column < numberOfColumns; column++) {
+			domains[column] = 1 + random.nextInt(4);
+		}
+		String[] rows = new String[numberOfRows];
+		for (int row = 0; row < numberOfRows; row++) {
+			StringBuilder line = new StringBuilder();
+			for (int column = 0; column < numberOfColumns; column++) {
+				line.append(column == 0 ? "" : ",");
+				if (random.nextInt(10) > 0) {
+					line.append(random.nextInt(domains[column]));
+				}
+			}
+			rows[row] = line.toString();
+		}
+		return rows;
+	}
+
+	/**
+	 * Runs the search with every configuration and compares it with the
+	 * brute-force reference.
+	 */
+	private static void assertFindsInds(List<CsvFile> tables, int maxArity) throws Exception {
+		List<String> expected = expected(tables, maxArity);
+		for (String[] configuration : CONFIGURATIONS) {
+			assertEquals(tables.get(0).getName() + " with " + Arrays.toString(configuration) + ", arity " + maxArity,
+					expected, discover(tables, maxArity, configuration));
+		}
+	}
+
+	private static List<String> expected(List<CsvFile> tables, int maxArity) throws Exception {
+		List<String> expected = new ArrayList<String>(BruteForceInds.discover(tables, maxArity));
+		Collections.sort(expected);
+		return expected;
+	}
+
+	/**
+	 * @return the sorted INDs found by the algorithm, formatted like the
+	 * 	reference; duplicates are kept
+	 */
+	private static List<String> discover(List<CsvFile> tables, int maxArity, String[] configuration) throws Exception {
+		MuchDiscoVeryDisco algorithm = new MuchDiscoVeryDisco();
+		algorithm.setFileInputConfigurationValue(MuchDiscoVeryDisco.Identifier.INPUT_GENERATOR.name(),
+				tables.toArray(new FileInputGenerator[tables.size()]));
+		algorithm.setStringConfigurationValue(MuchDiscoVeryDisco.Identifier.MAX_ARITY.name(), String.valueOf(maxArity));
+		for (int i = 0; i < configuration.length; i += 2) {
+			algorithm.setStringConfigurationValue(configuration[i], configuration[i + 1]);
+		}
+		final List<String> inds = new ArrayList<String>();
+		algorithm.setResultReceiver(new InclusionDependencyResultReceiver() {
+			@Override
+			public void receiveResult(InclusionDependency ind) {
+				inds.add(format(ind.getDependant().getColumnIdentifiers()) + " [= "
+						+ format(ind.getReferenced().getColumnIdentifiers()));
+			}
+		});
+		algorithm.execute();
+		Collections.sort(inds);
+		return inds;
+	}
+
+	private static String format(List<ColumnIdentifier> columns) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < columns.size(); i++) {
+			builder.append(i == 0 ? "" : ", ")
+					.append(columns.get(i).getTableIdentifier()).append('.').append(columns.get(i).getColumnIdentifier());
+		}
+		return builder.append(']').toString();
+	}
+
+}
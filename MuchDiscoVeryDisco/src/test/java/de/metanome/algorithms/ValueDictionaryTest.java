@@ -0,0 +1,50 @@
+package de.metanome.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class ValueDictionaryTest {
+
+	@Test
+	public void testIdsAreDenseWhenThreadsRace() throws Exception {
+		final ValueDictionary dictionary = new ValueDictionary();
+		final int numberOfValues = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int value = 0; value < numberOfValues; value++) {
+						dictionary.getId(String.valueOf(value));
+					}
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(numberOfValues, dictionary.size());
+		BitSet ids = new BitSet();
+		for (int value = 0; value < numberOfValues; value++) {
+			int id = dictionary.getId(String.valueOf(value));
+			assertTrue(id < numberOfValues);
+			ids.set(id);
+		}
+		assertEquals(numberOfValues, ids.cardinality());
+	}
+
+}